@@ -0,0 +1,173 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.adidas.next.shippingapi.constant.ErrorConstants;
+import com.adidas.next.shippingapi.exception.ShippingApiException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Bulkhead for the calls to one downstream with an AIMD (additive increase, multiplicative decrease) concurrency
+ * limit. Every call that succeeds within the latency threshold raises the limit by roughly one per limit's worth
+ * of calls; a timeout, an error or a slow answer cuts it by the backoff ratio. Calls over the limit wait in a
+ * bounded queue for at most the maximum wait and are rejected once the queue is full, so a degraded downstream
+ * sheds load instead of holding on to shared resources.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  static final String LIMIT_METRIC = "outbound.concurrency.limit";
+  static final String IN_FLIGHT_METRIC = "outbound.concurrency.inflight";
+  static final String QUEUE_METRIC = "outbound.concurrency.queue";
+  static final String REJECTIONS_METRIC = "outbound.concurrency.rejections";
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final String name;
+  private final MeterRegistry meterRegistry;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueue;
+  private final Duration maxWait;
+  private final long latencyThresholdNanos;
+  private final Deque<Waiter> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+
+  public AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry, int initialLimit, int minLimit,
+      int maxLimit, int maxQueue, Duration maxWait, Duration latencyThreshold) {
+    this.name = name;
+    this.meterRegistry = meterRegistry;
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.maxQueue = maxQueue;
+    this.maxWait = maxWait;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    Gauge.builder(LIMIT_METRIC, this, AdaptiveConcurrencyLimiter::getLimit).tag("downstream", name)
+        .register(meterRegistry);
+    Gauge.builder(IN_FLIGHT_METRIC, this, AdaptiveConcurrencyLimiter::getInFlight).tag("downstream", name)
+        .register(meterRegistry);
+    Gauge.builder(QUEUE_METRIC, this, AdaptiveConcurrencyLimiter::getQueueDepth).tag("downstream", name)
+        .register(meterRegistry);
+  }
+
+  public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+    return Mono.defer(this::acquire).then(Mono.defer(() -> {
+      long start = System.nanoTime();
+      AtomicInteger outcome = new AtomicInteger();
+      return Mono.defer(call::get)
+          .doOnSuccess(value -> outcome.set(System.nanoTime() - start > latencyThresholdNanos ? -1 : 1))
+          .doOnError(error -> outcome.set(-1))
+          .doFinally(signalType -> release(outcome.get()));
+    }));
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized int getQueueDepth() {
+    return waiters.size();
+  }
+
+  private Mono<Void> acquire() {
+    Waiter waiter;
+    synchronized (this) {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return Mono.empty();
+      }
+      if (waiters.size() >= maxQueue) {
+        meterRegistry.counter(REJECTIONS_METRIC, "downstream", name, "reason", "queue_full").increment();
+        return Mono.error(rejection("queue full"));
+      }
+      waiter = new Waiter();
+      waiters.addLast(waiter);
+    }
+    return waiter.sink.asMono()
+        .timeout(maxWait)
+        .onErrorMap(TimeoutException.class, error -> {
+          meterRegistry.counter(REJECTIONS_METRIC, "downstream", name, "reason", "timeout").increment();
+          return rejection("no permit within " + maxWait.toMillis() + " ms");
+        })
+        .doFinally(signalType -> {
+          if (signalType != SignalType.ON_COMPLETE) {
+            abandon(waiter);
+          }
+        });
+  }
+
+  /**
+   * Returns a permit after a call terminated and adjusts the limit; a positive outcome is a fast success, a
+   * negative one an error or a slow answer, zero a cancelled call.
+   */
+  private void release(int outcome) {
+    synchronized (this) {
+      inFlight--;
+      if (outcome > 0) {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      } else if (outcome < 0) {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+      }
+    }
+    grant();
+  }
+
+  private void grant() {
+    while (true) {
+      Waiter waiter;
+      synchronized (this) {
+        if (inFlight >= (int) limit || waiters.isEmpty()) {
+          return;
+        }
+        waiter = waiters.pollFirst();
+        inFlight++;
+        waiter.granted = true;
+      }
+      if (waiter.sink.tryEmitEmpty().isFailure()) {
+        synchronized (this) {
+          inFlight--;
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes a waiter that stopped waiting. A permit granted to it while it was timing out or being cancelled is
+   * handed on to the next waiter.
+   */
+  private void abandon(Waiter waiter) {
+    synchronized (this) {
+      if (!waiter.granted) {
+        waiters.remove(waiter);
+        return;
+      }
+    }
+    release(0);
+  }
+
+  private ShippingApiException rejection(String reason) {
+    return new ShippingApiException(new RejectedExecutionException("Calls to " + name + " rejected: " + reason),
+        ErrorConstants.INTERNAL_ERROR_CODE);
+  }
+
+  private static final class Waiter {
+
+    private final Sinks.Empty<Void> sink = Sinks.empty();
+    private boolean granted;
+  }
+}
@@ -0,0 +1,110 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.adidas.next.shippingapi.exception.ShippingApiException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  SimpleMeterRegistry meterRegistry;
+
+  AdaptiveConcurrencyLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    limiter = new AdaptiveConcurrencyLimiter("pudo-aggregator", meterRegistry, 2, 1, 4, 1, Duration.ofSeconds(5),
+        Duration.ofSeconds(2));
+  }
+
+  @Test
+  void testCallsOverLimitWaitForPermit() {
+    Sinks.One<String> first = Sinks.one();
+    Sinks.One<String> second = Sinks.one();
+    StepVerifier firstCall = StepVerifier.create(limiter.execute(first::asMono)).expectNext("first").expectComplete()
+        .verifyLater();
+    StepVerifier secondCall = StepVerifier.create(limiter.execute(second::asMono)).expectNext("second")
+        .expectComplete().verifyLater();
+    StepVerifier queuedCall = StepVerifier.create(limiter.execute(() -> Mono.just("queued"))).expectNext("queued")
+        .expectComplete().verifyLater();
+
+    Assertions.assertEquals(2, limiter.getInFlight());
+    Assertions.assertEquals(1, limiter.getQueueDepth());
+
+    first.tryEmitValue("first");
+    second.tryEmitValue("second");
+
+    firstCall.verify();
+    secondCall.verify();
+    queuedCall.verify();
+    Assertions.assertEquals(0, limiter.getInFlight());
+    Assertions.assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  void testCallIsRejectedWhenQueueIsFull() {
+    limiter.execute(Mono::never).subscribe();
+    limiter.execute(Mono::never).subscribe();
+    limiter.execute(Mono::never).subscribe();
+
+    StepVerifier.create(limiter.execute(() -> Mono.just("rejected")))
+        .expectError(ShippingApiException.class)
+        .verify();
+
+    Assertions.assertEquals(1, meterRegistry.get(AdaptiveConcurrencyLimiter.REJECTIONS_METRIC)
+        .tags("reason", "queue_full").counter().count());
+  }
+
+  @Test
+  void testQueuedCallIsRejectedAfterMaxWait() {
+    StepVerifier.withVirtualTime(() -> {
+      limiter.execute(Mono::never).subscribe();
+      limiter.execute(Mono::never).subscribe();
+      return limiter.execute(() -> Mono.just("late"));
+    })
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(5))
+        .expectError(ShippingApiException.class)
+        .verify();
+
+    Assertions.assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  void testPermitIsReleasedWhenCallThrows() {
+    for (int i = 0; i < 3; i++) {
+      StepVerifier.create(limiter.execute(() -> {
+        throw new IllegalStateException("no client");
+      })).expectError(IllegalStateException.class).verify();
+    }
+
+    Assertions.assertEquals(0, limiter.getInFlight());
+    Assertions.assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  void testLimitShrinksOnErrorsAndGrowsOnSuccess() {
+    for (int i = 0; i < 8; i++) {
+      StepVerifier.create(limiter.execute(() -> Mono.error(new IllegalStateException("unavailable"))))
+          .expectError(IllegalStateException.class)
+          .verify();
+    }
+    Assertions.assertEquals(1, limiter.getLimit());
+
+    for (int i = 0; i < 10; i++) {
+      StepVerifier.create(limiter.execute(() -> Mono.just("ok"))).expectNext("ok").verifyComplete();
+    }
+    Assertions.assertTrue(limiter.getLimit() > 1);
+    Assertions.assertEquals(limiter.getLimit(), meterRegistry.get(AdaptiveConcurrencyLimiter.LIMIT_METRIC)
+        .gauge().value());
+  }
+}
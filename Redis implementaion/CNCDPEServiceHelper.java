@@ -2,22 +2,30 @@ package com.adidas.next.shippingapi.handler.cnc;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.stereotype.Component;
 
+import com.adidas.next.shippingapi.cache.CacheRegion;
+import com.adidas.next.shippingapi.cache.ReferenceDataCache;
 import com.adidas.next.shippingapi.entity.ShippingMethods;
 import com.adidas.next.shippingapi.entity.SiteId;
 import com.adidas.next.shippingapi.handler.ShippingMethodsCNCRulesHandler;
 import com.adidas.next.shippingapi.repository.ShippingReadRepository;
+import com.adidas.next.shippingapi.repository.SiteShippingContextReadRepository;
 import com.adidas.next.shippingapi.resources.request.ShippingOptionsPostRequest;
 import com.adidas.next.shippingapi.resources.response.rule.DependentAndIndependetRules;
-import com.adidas.next.shippingapi.util.JsonObjectMapper;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Slf4j
 @Component
@@ -26,29 +34,58 @@ public class CNCDPEServiceHelper {
   @Value("${cache-expiry-seconds}")
   private long cacheExpiryTime;
   
-  private final ReactiveRedisOperations<String, String> redisOperations;
+  @Value("${site-context.single-query.enabled:false}")
+  private boolean singleQuerySiteContext;
+  
+  private final ReferenceDataCache referenceDataCache;
   private final ShippingReadRepository shippingReadRepository;
-  private final JsonObjectMapper jsonObjectMapper;
+  private final SiteShippingContextReadRepository siteShippingContextReadRepository;
   private final ShippingMethodsCNCRulesHandler shippingMethodsCNCRulesHandler;
   
-  public CNCDPEServiceHelper(ReactiveRedisOperations<String, String> redisOperations,
-      ShippingReadRepository shippingReadRepository, JsonObjectMapper jsonObjectMapper,
+  public CNCDPEServiceHelper(ReferenceDataCache referenceDataCache,
+      ShippingReadRepository shippingReadRepository,
+      SiteShippingContextReadRepository siteShippingContextReadRepository,
       ShippingMethodsCNCRulesHandler shippingMethodsCNCRulesHandler) {
-    this.redisOperations = redisOperations;
+    this.referenceDataCache = referenceDataCache;
     this.shippingReadRepository = shippingReadRepository;
-    this.jsonObjectMapper = jsonObjectMapper;
+    this.siteShippingContextReadRepository = siteShippingContextReadRepository;
     this.shippingMethodsCNCRulesHandler = shippingMethodsCNCRulesHandler;
   }
 
   public Mono<ShippingMethods> getShippingMethods(String fulfillmentType, ShippingOptionsPostRequest shippingOptionsRequest, SiteId siteResponse) {
     String siteId = shippingOptionsRequest.getSiteId();
-    var cacheKey = String.join("-", "shippingMethods", siteId, fulfillmentType);
-    return redisOperations.opsForValue().get(cacheKey).map(jsonString -> {
-      log.info("Get cached shippingMethods value for siteId : {} and fulfillmentType : {}", siteId, fulfillmentType);
-      return jsonObjectMapper.jsonStringToObject(ShippingMethods.class, jsonString);
-    }).switchIfEmpty(Mono.defer(() -> shippingReadRepository.findBySiteIdAndFulfillmentType(siteResponse.getId(), fulfillmentType)
-            .flatMap(shippingMethods -> redisOperations.opsForValue().set(cacheKey, jsonObjectMapper.toJsonString(shippingMethods), Duration.ofSeconds(cacheExpiryTime))
-                .then(Mono.just(shippingMethods)))));
+    var cacheKey = CacheRegion.SHIPPING_METHODS.key(siteId, fulfillmentType);
+    return referenceDataCache.get(CacheRegion.SHIPPING_METHODS, cacheKey, Duration.ofSeconds(cacheExpiryTime),
+        ShippingMethods.class, () -> shippingReadRepository.findBySiteIdAndFulfillmentType(siteResponse.getId(), fulfillmentType));
+  }
+  
+  /**
+   * Batch variant of {@link #getShippingMethods(String, ShippingOptionsPostRequest, SiteId)} returning the shipping
+   * methods keyed by fulfillment type. All cached types are read with one MGET; the site is only resolved when a type
+   * has to be loaded from the database. Missing types are loaded one query per type, or with one query for all of
+   * them when {@code site-context.single-query.enabled} is set.
+   */
+  public Mono<Map<String, ShippingMethods>> getShippingMethods(Collection<String> fulfillmentTypes, String siteId,
+      Mono<SiteId> siteResponse) {
+    Map<String, String> fulfillmentTypesByCacheKey = new HashMap<>();
+    fulfillmentTypes.forEach(fulfillmentType -> fulfillmentTypesByCacheKey
+        .put(CacheRegion.SHIPPING_METHODS.key(siteId, fulfillmentType), fulfillmentType));
+    return referenceDataCache.getMany(CacheRegion.SHIPPING_METHODS, fulfillmentTypesByCacheKey.keySet(),
+        Duration.ofSeconds(cacheExpiryTime), ShippingMethods.class,
+        missingKeys -> singleQuerySiteContext
+            ? loadShippingMethods(siteId, siteResponse, missingKeys, fulfillmentTypesByCacheKey)
+            : siteResponse.flatMapMany(site -> Flux.fromIterable(missingKeys)
+                .flatMap(cacheKey -> shippingReadRepository
+                    .findBySiteIdAndFulfillmentType(site.getId(), fulfillmentTypesByCacheKey.get(cacheKey))
+                    .map(shippingMethods -> Tuples.of(cacheKey, shippingMethods))))
+                .collectMap(Tuple2::getT1, Tuple2::getT2))
+        .map(shippingMethodsByCacheKey -> {
+          log.info("Get shippingMethods for siteId : {} and fulfillmentTypes : {}", siteId, fulfillmentTypes);
+          Map<String, ShippingMethods> shippingMethodsByType = new HashMap<>();
+          shippingMethodsByCacheKey.forEach((cacheKey, shippingMethods) -> shippingMethodsByType
+              .put(fulfillmentTypesByCacheKey.get(cacheKey), shippingMethods));
+          return shippingMethodsByType;
+        });
   }
   
   public Mono<DependentAndIndependetRules> getShipmentMethodRuleData(ShippingMethods shipMethod,ShippingOptionsPostRequest shippingOptionsRequest, Set<Integer> excludedShippingId) {
@@ -56,4 +93,17 @@ public class CNCDPEServiceHelper {
   .flatMap(rulesData -> shippingMethodsCNCRulesHandler.getCNCFilteredShippingMethods(rulesData,shippingOptionsRequest,excludedShippingId));
   }
   
+  private Mono<Map<String, ShippingMethods>> loadShippingMethods(String siteId, Mono<SiteId> siteResponse,
+      Collection<String> missingKeys, Map<String, String> fulfillmentTypesByCacheKey) {
+    return siteResponse.flatMap(site -> siteShippingContextReadRepository
+        .findBySiteIdAndFulfillmentTypes(site, missingKeys.stream().map(fulfillmentTypesByCacheKey::get)
+            .collect(Collectors.toList())))
+        .map(shippingMethodsByType -> {
+          Map<String, ShippingMethods> shippingMethodsByCacheKey = new HashMap<>();
+          shippingMethodsByType.forEach((fulfillmentType, shippingMethods) -> shippingMethodsByCacheKey
+              .put(CacheRegion.SHIPPING_METHODS.key(siteId, fulfillmentType), shippingMethods));
+          return shippingMethodsByCacheKey;
+        });
+  }
+  
 }
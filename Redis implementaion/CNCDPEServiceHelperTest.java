@@ -1,23 +1,33 @@
 package com.adidas.next.shippingapi.handler;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.adidas.next.shippingapi.TestHelper;
+import com.adidas.next.shippingapi.cache.CacheValueCodec;
+import com.adidas.next.shippingapi.cache.ReferenceDataCache;
 import com.adidas.next.shippingapi.handler.cnc.CNCDPEServiceHelper;
 import com.adidas.next.shippingapi.repository.ShippingReadRepository;
+import com.adidas.next.shippingapi.repository.SiteShippingContextReadRepository;
 import com.adidas.next.shippingapi.util.JsonObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -25,10 +35,10 @@ import reactor.test.StepVerifier;
 public class CNCDPEServiceHelperTest extends TestHelper {
 
   @Mock
-  ReactiveRedisOperations<String, String> redisOperations;
+  ReactiveRedisOperations<String, byte[]> redisOperations;
   
   @Mock
-  ReactiveValueOperations<String, String> reactiveValueOperations;
+  ReactiveValueOperations<String, byte[]> reactiveValueOperations;
   
   @Mock
   JsonObjectMapper jsonObjectMapper ;
@@ -36,12 +46,23 @@ public class CNCDPEServiceHelperTest extends TestHelper {
   @Mock
   ShippingReadRepository shippingReadRepository;
   
+  @Mock
+  SiteShippingContextReadRepository siteShippingContextReadRepository;
+  
   @Mock
   ShippingMethodsCNCRulesHandler shippingMethodsCNCRulesHandler;
   
-  @InjectMocks
   CNCDPEServiceHelper cncDPEServiceHelper;
 
+  @BeforeEach
+  void setUp() {
+    CacheValueCodec cacheValueCodec = new CacheValueCodec(jsonObjectMapper, new Jackson2ObjectMapperBuilder());
+    cncDPEServiceHelper = new CNCDPEServiceHelper(
+        new ReferenceDataCache(redisOperations, new SimpleMeterRegistry(), cacheValueCodec, 100, 60),
+        shippingReadRepository, siteShippingContextReadRepository, shippingMethodsCNCRulesHandler);
+    Mockito.when(jsonObjectMapper.toJsonBytes(Mockito.any())).thenReturn(new byte[] {'{', '}'});
+  }
+
   @Test
   void testGetShippingMethodDB() {
     Mockito.when(shippingReadRepository.findBySiteIdAndFulfillmentType(Mockito.any(),Mockito.any())).thenReturn(buildShippingMethodsForCNC());
@@ -62,8 +83,9 @@ public class CNCDPEServiceHelperTest extends TestHelper {
   @Test
   void testGetShippingMethodCache() {
     Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
-    Mockito.when(reactiveValueOperations.get(Mockito.any())).thenReturn(Mono.just(buildShippingMethodsJsonString()));
-    Mockito.when(jsonObjectMapper.jsonStringToObject(Mockito.any(), Mockito.any())).thenReturn(buildShippingMethod());
+    Mockito.when(reactiveValueOperations.get(Mockito.any()))
+        .thenReturn(Mono.just(buildShippingMethodsJsonString().getBytes(StandardCharsets.UTF_8)));
+    Mockito.when(jsonObjectMapper.jsonBytesToObject(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(buildShippingMethod());
     Mockito.when(shippingReadRepository.findBySiteIdAndFulfillmentType(Mockito.any(),Mockito.any())).thenReturn(buildShippingMethodsForCNC());
     Mockito.when(shippingMethodsCNCRulesHandler.getRules(Mockito.any())).thenReturn(Mono.just(buildShippingMethodsRulesDataList()));
     Mockito.when(shippingMethodsCNCRulesHandler.getCNCFilteredShippingMethods(Mockito.any(),Mockito.any(), Mockito.any())).thenReturn(Mono.just(buildDependentAndIndependetRules()));
@@ -76,6 +98,46 @@ public class CNCDPEServiceHelperTest extends TestHelper {
         }).verifyComplete();
   }
   
+  @Test
+  void testGetShippingMethodsForFulfillmentTypes() {
+    Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+    Mockito.when(reactiveValueOperations.multiGet(Mockito.anyCollection()))
+        .thenReturn(Mono.just(Arrays.asList(buildShippingMethodsJsonString().getBytes(StandardCharsets.UTF_8), null)));
+    Mockito.when(jsonObjectMapper.jsonBytesToObject(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(buildShippingMethod());
+    Mockito.when(shippingReadRepository.findBySiteIdAndFulfillmentType(Mockito.any(), Mockito.eq("HomeDelivery")))
+        .thenReturn(buildShippingMethodsForCNC());
+    Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
+    StepVerifier.create(
+        cncDPEServiceHelper.getShippingMethods(List.of("ClickAndCollect", "HomeDelivery"), "adidas-US", Mono.just(prepareSiteId())))
+        .thenConsumeWhile(shippingMethodsByType -> {
+          Assertions.assertEquals(UUID.fromString("f5ffb268-5ae6-423e-8e88-58f4af0354c1"), shippingMethodsByType.get("ClickAndCollect").getShippingMethodId());
+          Assertions.assertEquals(UUID.fromString("760565d9-3e78-4b27-bf6e-b64912e3c531"), shippingMethodsByType.get("HomeDelivery").getShippingMethodId());
+          return true;
+        }).verifyComplete();
+    Mockito.verify(reactiveValueOperations, Mockito.never()).get(Mockito.any());
+    Mockito.verifyNoInteractions(siteShippingContextReadRepository);
+  }
+  
+  @Test
+  void testGetShippingMethodsForFulfillmentTypesSingleQuery() {
+    ReflectionTestUtils.setField(cncDPEServiceHelper, "singleQuerySiteContext", true);
+    Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+    Mockito.when(reactiveValueOperations.multiGet(Mockito.anyCollection()))
+        .thenReturn(Mono.just(Arrays.asList(buildShippingMethodsJsonString().getBytes(StandardCharsets.UTF_8), null)));
+    Mockito.when(jsonObjectMapper.jsonBytesToObject(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(buildShippingMethod());
+    Mockito.when(siteShippingContextReadRepository.findBySiteIdAndFulfillmentTypes(Mockito.any(), Mockito.eq(List.of("HomeDelivery"))))
+        .thenReturn(buildShippingMethodsForCNC().map(shippingMethods -> Map.of("HomeDelivery", shippingMethods)));
+    Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
+    StepVerifier.create(
+        cncDPEServiceHelper.getShippingMethods(List.of("ClickAndCollect", "HomeDelivery"), "adidas-US", Mono.just(prepareSiteId())))
+        .thenConsumeWhile(shippingMethodsByType -> {
+          Assertions.assertEquals(UUID.fromString("f5ffb268-5ae6-423e-8e88-58f4af0354c1"), shippingMethodsByType.get("ClickAndCollect").getShippingMethodId());
+          Assertions.assertEquals(UUID.fromString("760565d9-3e78-4b27-bf6e-b64912e3c531"), shippingMethodsByType.get("HomeDelivery").getShippingMethodId());
+          return true;
+        }).verifyComplete();
+    Mockito.verify(shippingReadRepository, Mockito.never()).findBySiteIdAndFulfillmentType(Mockito.any(), Mockito.any());
+  }
+  
   @Test
   void getShipmentMethodRuleData() {
     Mockito.when(shippingReadRepository.findBySiteIdAndFulfillmentType(Mockito.any(),Mockito.any())).thenReturn(buildShippingMethodsForCNC());
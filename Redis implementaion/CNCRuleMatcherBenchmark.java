@@ -0,0 +1,115 @@
+package com.adidas.next.shippingapi.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.adidas.next.shippingapi.handler.cnc.CNCRuleMatchers;
+import com.adidas.next.shippingapi.handler.cnc.RuleValueMatcher;
+
+/**
+ * Compares scanning the inclusion data of a CNC rule with matching against its compiled {@link RuleValueMatcher},
+ * for a postal code list of 10,000 entries and a miss (the worst case of the scan). The {@code matchers} benchmarks
+ * measure the full per-request path instead: looking the compiled rules up in {@link CNCRuleMatchers}, then
+ * matching. Run with the GC profiler to
+ * confirm the compiled path does not allocate: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.adidas.next.shippingapi.benchmark.CNCRuleMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CNCRuleMatcherBenchmark {
+
+  private static final String POSTAL_CODE = "Postal_Code";
+  private static final UUID SHIPPING_METHOD_ID = UUID.fromString("760565d9-3e78-4b27-bf6e-b64912e3c531");
+
+  @Param({"10000", "50000"})
+  private int postalCodes;
+
+  private List<String> inclusionData;
+  private RuleValueMatcher matcher;
+  private Map<String, List<String>> inclusionRules;
+  private String version;
+  private CNCRuleMatchers ruleMatchers;
+  private String hit;
+  private String miss;
+
+  @Setup
+  public void setUp() {
+    inclusionData = IntStream.range(0, postalCodes).mapToObj(i -> String.format("%05d", 10000 + i))
+        .collect(Collectors.toList());
+    matcher = RuleValueMatcher.compile(inclusionData);
+    inclusionRules = Map.of(POSTAL_CODE, inclusionData);
+    version = CNCRuleMatchers.version(inclusionRules, Map.of(), List.of());
+    ruleMatchers = new CNCRuleMatchers(1000, 3600, false);
+    hit = inclusionData.get(postalCodes / 2);
+    miss = "99999";
+  }
+
+  @Benchmark
+  public boolean scanHit() {
+    return scan(hit);
+  }
+
+  @Benchmark
+  public boolean scanMiss() {
+    return scan(miss);
+  }
+
+  @Benchmark
+  public boolean compiledHit() {
+    return matcher.matches(hit);
+  }
+
+  @Benchmark
+  public boolean compiledMiss() {
+    return matcher.matches(miss);
+  }
+
+  @Benchmark
+  public boolean matchersHit() {
+    return ruleMatchers.get(SHIPPING_METHOD_ID, version, inclusionRules, Map.of(), List.of())
+        .allows(POSTAL_CODE, hit);
+  }
+
+  @Benchmark
+  public boolean matchersMiss() {
+    return ruleMatchers.get(SHIPPING_METHOD_ID, version, inclusionRules, Map.of(), List.of())
+        .allows(POSTAL_CODE, miss);
+  }
+
+  private boolean scan(String postalCode) {
+    for (String entry : inclusionData) {
+      if (entry.trim().equalsIgnoreCase(postalCode)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CNCRuleMatcherBenchmark.class.getSimpleName())
+        .addProfiler("gc").build()).run();
+  }
+}
@@ -0,0 +1,71 @@
+package com.adidas.next.shippingapi.handler.cnc;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.cache.CacheKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps the compiled form of the CNC rules of each shipping method, keyed on the shipping method id and a version
+ * of its rules: the {@code updated_at} of the rules, or a {@link #version digest} of their content computed once
+ * when the rules are loaded. A lookup therefore costs one hash of a short key, however large the rule data; changed
+ * rules come with a new version and are compiled again. The cache is bounded in size and drops entries that have
+ * not been used for a while, which also removes the compiled form of earlier versions.
+ * <p>
+ * Rule entries are matched as exact values unless {@code cnc-rules.patterns.enabled} is set, in which case entries
+ * ending in {@code *} are prefixes and numeric {@code a-b} entries are ranges; see {@link RuleValueMatcher}.
+ */
+@Component
+public class CNCRuleMatchers {
+
+  private final Cache<String, CompiledCNCRules> compiledRules;
+  private final boolean patterns;
+
+  public CNCRuleMatchers(@Value("${cnc-rules.compiled-cache.max-size:1000}") long maxSize,
+      @Value("${cnc-rules.compiled-cache.expiry-seconds:3600}") long expiryTime,
+      @Value("${cnc-rules.patterns.enabled:false}") boolean patterns) {
+    this.compiledRules = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(Duration.ofSeconds(expiryTime))
+        .build();
+    this.patterns = patterns;
+  }
+
+  /**
+   * Returns the compiled rules of the shipping method at the given version, compiling the rule data only when that
+   * version has not been compiled yet.
+   */
+  public CompiledCNCRules get(UUID shippingMethodId, String version,
+      Map<String, ? extends Collection<String>> inclusionData, Map<String, ? extends Collection<String>> exclusionData,
+      Collection<Integer> excludedShippingMethodIds) {
+    return compiledRules.get(shippingMethodId + ":" + version,
+        key -> CompiledCNCRules.compile(inclusionData, exclusionData, excludedShippingMethodIds, patterns));
+  }
+
+  /**
+   * Digest of the rule data, to be computed once when the rules are loaded and kept with them for rules that carry
+   * no {@code updated_at}.
+   */
+  public static String version(Map<String, ? extends Collection<String>> inclusionData,
+      Map<String, ? extends Collection<String>> exclusionData, Collection<Integer> excludedShippingMethodIds) {
+    StringBuilder canonical = new StringBuilder();
+    new TreeMap<>(inclusionData).forEach((ruleType, values) -> append(canonical.append('+'), ruleType, values));
+    new TreeMap<>(exclusionData).forEach((ruleType, values) -> append(canonical.append('-'), ruleType, values));
+    canonical.append('!').append(excludedShippingMethodIds);
+    return CacheKeys.digest(canonical.toString());
+  }
+
+  private static void append(StringBuilder canonical, String ruleType, Collection<String> values) {
+    canonical.append(ruleType).append('=');
+    values.forEach(value -> canonical.append(value).append('\u0000'));
+    canonical.append('\n');
+  }
+}
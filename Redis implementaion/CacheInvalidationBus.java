@@ -0,0 +1,148 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.enums.FulfillmentType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Cluster-wide invalidation of reference data. Writers call {@link #invalidate} after committing a change: the keys
+ * are deleted from Redis and an event is published on a pub/sub channel, upon which every replica, this one
+ * included, drops its in-process copies. The subscription is renewed with backoff whenever it fails or simply
+ * ends, for instance when the Redis connection drops; all local copies are dropped when it is lost and again on
+ * every resubscription, since events published in the meantime are not replayed.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+  static final String INVALIDATIONS_METRIC = "reference.cache.invalidations";
+  private static final char SEPARATOR = ':';
+
+  private final ReactiveRedisOperations<String, byte[]> redisOperations;
+  private final ReferenceDataCache referenceDataCache;
+  private final MeterRegistry meterRegistry;
+  private Disposable subscription;
+
+  @Value("${cache-invalidation.channel:shipping-reference-cache-invalidation}")
+  private String channel;
+
+  public CacheInvalidationBus(ReactiveRedisOperations<String, byte[]> redisOperations,
+      ReferenceDataCache referenceDataCache, MeterRegistry meterRegistry) {
+    this.redisOperations = redisOperations;
+    this.referenceDataCache = referenceDataCache;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    subscription = listen().subscribe();
+  }
+
+  /**
+   * Listens to the channel until disposed. The end of the channel is turned into an error, so that both go through
+   * the same backoff before resubscribing.
+   */
+  Mono<Void> listen() {
+    AtomicBoolean subscribed = new AtomicBoolean();
+    return Flux.defer(() -> {
+      if (subscribed.getAndSet(true)) {
+        log.info("Resubscribing to cache invalidation events, dropping local cache copies");
+        referenceDataCache.evictAllLocal();
+      }
+      return redisOperations.listenToChannel(channel);
+    })
+        .doOnNext(message -> onMessage(message.getMessage()))
+        .then(Mono.<Void>error(() -> new IllegalStateException("Cache invalidation subscription ended")))
+        .doOnError(error -> {
+          log.warn("Cache invalidation subscription lost, dropping local cache copies", error);
+          referenceDataCache.evictAllLocal();
+        })
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)));
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+
+  /**
+   * Deletes the given keys of a region from Redis and tells every replica to drop its local copies.
+   */
+  public Mono<Void> invalidate(CacheRegion region, String... keys) {
+    List<String> cacheKeys = Arrays.asList(keys);
+    return redisOperations.delete(keys)
+        .thenMany(Flux.fromIterable(cacheKeys))
+        .concatMap(key -> redisOperations.convertAndSend(channel, encode(region, key)))
+        .doOnComplete(() -> meterRegistry
+            .counter(INVALIDATIONS_METRIC, "cache", region.getPrefix(), "event", "published")
+            .increment(cacheKeys.size()))
+        .then();
+  }
+
+  /**
+   * To be called after a shipping method of a site is created or patched. The site context embeds the shipping
+   * methods, so it is dropped as well.
+   */
+  public Mono<Void> invalidateShippingMethods(String siteName, String fulfillmentType) {
+    return Mono.when(
+        invalidate(CacheRegion.SHIPPING_METHODS, CacheRegion.SHIPPING_METHODS.key(siteName, fulfillmentType)),
+        invalidate(CacheRegion.SITE_CONTEXT, CacheRegion.SITE_CONTEXT.key(siteName)));
+  }
+
+  /**
+   * To be called after a site or its fulfillment configuration changes; drops everything cached for the site.
+   */
+  public Mono<Void> invalidateSite(String siteName) {
+    String[] shippingMethodKeys = Arrays.stream(FulfillmentType.values())
+        .map(fulfillmentType -> CacheRegion.SHIPPING_METHODS.key(siteName, fulfillmentType.getValue()))
+        .toArray(String[]::new);
+    return Mono.when(invalidate(CacheRegion.SITE_ID, CacheRegion.SITE_ID.key(siteName)),
+        invalidate(CacheRegion.FULFILLMENT_OPTIONS, CacheRegion.FULFILLMENT_OPTIONS.key(siteName)),
+        invalidate(CacheRegion.SHIPPING_METHODS, shippingMethodKeys),
+        invalidate(CacheRegion.SITE_CONTEXT, CacheRegion.SITE_CONTEXT.key(siteName)));
+  }
+
+  void onMessage(byte[] message) {
+    String event = new String(message, StandardCharsets.UTF_8);
+    int separator = event.indexOf(SEPARATOR);
+    if (separator < 0) {
+      log.warn("Ignoring malformed cache invalidation event : {}", event);
+      return;
+    }
+    CacheRegion region;
+    try {
+      region = CacheRegion.valueOf(event.substring(0, separator));
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring cache invalidation event for unknown region : {}", event);
+      return;
+    }
+    String key = event.substring(separator + 1);
+    log.info("Evicting local cache copies for key : {}", key);
+    referenceDataCache.evictLocal(region, key);
+    meterRegistry.counter(INVALIDATIONS_METRIC, "cache", region.getPrefix(), "event", "received").increment();
+  }
+
+  private static byte[] encode(CacheRegion region, String key) {
+    return (region.name() + SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,91 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBusTest {
+
+  private static final String CHANNEL = "shipping-reference-cache-invalidation";
+
+  @Mock
+  ReactiveRedisOperations<String, byte[]> redisOperations;
+
+  @Mock
+  ReferenceDataCache referenceDataCache;
+
+  SimpleMeterRegistry meterRegistry;
+
+  CacheInvalidationBus cacheInvalidationBus;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cacheInvalidationBus = new CacheInvalidationBus(redisOperations, referenceDataCache, meterRegistry);
+    ReflectionTestUtils.setField(cacheInvalidationBus, "channel", CHANNEL);
+  }
+
+  @Test
+  void testInvalidateDeletesKeysAndPublishesEvents() {
+    Mockito.when(redisOperations.delete("shippingMethods-adidas-US-ClickAndCollect")).thenReturn(Mono.just(1L));
+    Mockito.when(redisOperations.delete("siteContext-adidas-US")).thenReturn(Mono.just(1L));
+    Mockito.when(redisOperations.convertAndSend(Mockito.eq(CHANNEL), Mockito.any())).thenReturn(Mono.just(3L));
+
+    StepVerifier.create(cacheInvalidationBus.invalidateShippingMethods("adidas-US", "ClickAndCollect"))
+        .verifyComplete();
+
+    Mockito.verify(redisOperations).convertAndSend(Mockito.eq(CHANNEL), Mockito.argThat(message ->
+        "SHIPPING_METHODS:shippingMethods-adidas-US-ClickAndCollect".equals(new String(message, StandardCharsets.UTF_8))));
+    Mockito.verify(redisOperations).convertAndSend(Mockito.eq(CHANNEL), Mockito.argThat(message ->
+        "SITE_CONTEXT:siteContext-adidas-US".equals(new String(message, StandardCharsets.UTF_8))));
+    Assertions.assertEquals(1, meterRegistry.get(CacheInvalidationBus.INVALIDATIONS_METRIC)
+        .tags("cache", "shippingMethods", "event", "published").counter().count());
+  }
+
+  @Test
+  void testEndedSubscriptionIsRenewedAndDropsLocalCopies() {
+    Mockito.doReturn(Flux.empty(), Flux.never()).when(redisOperations).listenToChannel(CHANNEL);
+
+    StepVerifier.withVirtualTime(() -> cacheInvalidationBus.listen())
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(2))
+        .thenCancel()
+        .verify();
+
+    Mockito.verify(redisOperations, Mockito.times(2)).listenToChannel(CHANNEL);
+    Mockito.verify(referenceDataCache, Mockito.times(2)).evictAllLocal();
+  }
+
+  @Test
+  void testReceivedEventEvictsLocalCopies() {
+    cacheInvalidationBus.onMessage("FULFILLMENT_OPTIONS:fulfillmentOptionsByType-adidas-US"
+        .getBytes(StandardCharsets.UTF_8));
+
+    Mockito.verify(referenceDataCache).evictLocal(CacheRegion.FULFILLMENT_OPTIONS, "fulfillmentOptionsByType-adidas-US");
+    Assertions.assertEquals(1, meterRegistry.get(CacheInvalidationBus.INVALIDATIONS_METRIC)
+        .tags("cache", "fulfillmentOptionsByType", "event", "received").counter().count());
+  }
+
+  @Test
+  void testMalformedEventIsIgnored() {
+    cacheInvalidationBus.onMessage("siteId-adidas-US".getBytes(StandardCharsets.UTF_8));
+    cacheInvalidationBus.onMessage("UNKNOWN:siteId-adidas-US".getBytes(StandardCharsets.UTF_8));
+
+    Mockito.verifyNoInteractions(referenceDataCache);
+  }
+}
@@ -0,0 +1,45 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Helpers for building cache keys out of free-form request data.
+ */
+public final class CacheKeys {
+
+  private CacheKeys() {
+  }
+
+  /**
+   * Returns a compact, URL-safe SHA-256 digest of the canonical form of a key.
+   */
+  public static String digest(String canonical) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Upper-cases a postal code or country and drops whitespace and dashes, so that {@code "sw1a 1aa"} and
+   * {@code "SW1A1AA"} give the same key.
+   */
+  public static String normalizeCode(String value) {
+    return value == null ? "" : value.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Upper-cases a free-text address field, turns punctuation into spaces and collapses whitespace, so that
+   * {@code "1 Main St."} and {@code "1  MAIN ST"} give the same key.
+   */
+  public static String normalizeAddressLine(String value) {
+    return value == null ? "" : value.replaceAll("[.,#'/]", " ").trim().replaceAll("\\s+", " ")
+        .toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,28 @@
+package com.adidas.next.shippingapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis template used by the reference data cache. Values are kept as raw bytes so that
+ * {@link com.adidas.next.shippingapi.cache.CacheValueCodec} decides their layout.
+ */
+@Configuration
+public class CacheRedisConfig {
+
+  @Bean
+  public ReactiveRedisOperations<String, byte[]> cacheRedisOperations(
+      ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+    RedisSerializationContext<String, byte[]> serializationContext = RedisSerializationContext
+        .<String, byte[]>newSerializationContext(RedisSerializer.string())
+        .value(RedisSerializer.byteArray())
+        .hashValue(RedisSerializer.byteArray())
+        .build();
+    return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+  }
+}
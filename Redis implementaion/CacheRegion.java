@@ -0,0 +1,20 @@
+package com.adidas.next.shippingapi.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CacheRegion {
+
+  SITE_ID("siteId"),
+  FULFILLMENT_OPTIONS("fulfillmentOptionsByType"),
+  SHIPPING_METHODS("shippingMethods"),
+  SITE_CONTEXT("siteContext");
+
+  private final String prefix;
+
+  public String key(String... parts) {
+    return String.join("-", prefix, String.join("-", parts));
+  }
+}
@@ -0,0 +1,157 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.constant.ErrorConstants;
+import com.adidas.next.shippingapi.exception.ShippingApiException;
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serializes reference data cache entries for Redis in one of two layouts:
+ * <ul>
+ * <li>legacy: UTF-8 JSON, prefixed with {@code swr:<soft>:<hard>:} when the entry carries expiries;</li>
+ * <li>binary: a version byte, the soft and hard expiry as longs and a Smile payload.</li>
+ * </ul>
+ * Both layouts are always readable and {@code cache-codec.format} only selects what is written, so the format can
+ * be switched with a rolling deploy once every replica runs a version that reads both.
+ */
+@Component
+public class CacheValueCodec {
+
+  static final String FORMAT_SMILE = "smile";
+  static final byte BINARY_VERSION = 1;
+
+  private static final String EXPIRY_PREFIX = "swr:";
+  private static final int BINARY_HEADER_LENGTH = 1 + 2 * Long.BYTES;
+
+  private final JsonObjectMapper jsonObjectMapper;
+  private final ObjectMapper smileObjectMapper;
+
+  @Value("${cache-codec.format:json}")
+  private String format;
+
+  public CacheValueCodec(JsonObjectMapper jsonObjectMapper, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    this.jsonObjectMapper = jsonObjectMapper;
+    this.smileObjectMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+  }
+
+  /**
+   * Encodes a value, or an absent marker when {@code value} is null. Expiries of {@link Long#MAX_VALUE} mean the
+   * entry is only bounded by its Redis TTL.
+   */
+  public byte[] encode(Object value, long softExpiry, long hardExpiry) {
+    if (FORMAT_SMILE.equals(format)) {
+      byte[] payload = value == null ? new byte[0] : writeSmile(value);
+      return ByteBuffer.allocate(BINARY_HEADER_LENGTH + payload.length)
+          .put(BINARY_VERSION)
+          .putLong(softExpiry)
+          .putLong(hardExpiry)
+          .put(payload)
+          .array();
+    }
+    byte[] payload = value == null ? new byte[0] : jsonObjectMapper.toJsonBytes(value);
+    if (softExpiry == Long.MAX_VALUE && hardExpiry == Long.MAX_VALUE) {
+      return payload;
+    }
+    byte[] header = (EXPIRY_PREFIX + softExpiry + ":" + hardExpiry + ":").getBytes(StandardCharsets.US_ASCII);
+    return ByteBuffer.allocate(header.length + payload.length).put(header).put(payload).array();
+  }
+
+  public CachedValue decode(byte[] bytes) {
+    if (bytes.length >= BINARY_HEADER_LENGTH && bytes[0] == BINARY_VERSION) {
+      ByteBuffer header = ByteBuffer.wrap(bytes, 1, 2 * Long.BYTES);
+      return new CachedValue(bytes, BINARY_HEADER_LENGTH, true, header.getLong(), header.getLong());
+    }
+    if (!hasExpiryPrefix(bytes)) {
+      return new CachedValue(bytes, 0, false, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+    int softEnd = indexOf(bytes, ':', EXPIRY_PREFIX.length());
+    int hardEnd = indexOf(bytes, ':', softEnd + 1);
+    return new CachedValue(bytes, hardEnd + 1, false, parseLong(bytes, EXPIRY_PREFIX.length(), softEnd),
+        parseLong(bytes, softEnd + 1, hardEnd));
+  }
+
+  public <T> T read(CachedValue cachedValue, Class<T> type) {
+    byte[] bytes = cachedValue.bytes;
+    int length = bytes.length - cachedValue.payloadOffset;
+    if (!cachedValue.binary) {
+      return jsonObjectMapper.jsonBytesToObject(type, bytes, cachedValue.payloadOffset, length);
+    }
+    try {
+      return smileObjectMapper.readValue(bytes, cachedValue.payloadOffset, length, type);
+    } catch (IOException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
+  private static boolean hasExpiryPrefix(byte[] bytes) {
+    if (bytes.length < EXPIRY_PREFIX.length()) {
+      return false;
+    }
+    for (int i = 0; i < EXPIRY_PREFIX.length(); i++) {
+      if (bytes[i] != EXPIRY_PREFIX.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int indexOf(byte[] bytes, char character, int fromIndex) {
+    for (int i = fromIndex; i < bytes.length; i++) {
+      if (bytes[i] == character) {
+        return i;
+      }
+    }
+    throw new ShippingApiException(new IllegalArgumentException("Malformed cache value header"),
+        ErrorConstants.INTERNAL_ERROR_CODE);
+  }
+
+  private static long parseLong(byte[] bytes, int start, int end) {
+    return Long.parseLong(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+  }
+
+  private byte[] writeSmile(Object value) {
+    try {
+      return smileObjectMapper.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
+  public static final class CachedValue {
+
+    private final byte[] bytes;
+    private final int payloadOffset;
+    private final boolean binary;
+    private final long softExpiry;
+    private final long hardExpiry;
+
+    private CachedValue(byte[] bytes, int payloadOffset, boolean binary, long softExpiry, long hardExpiry) {
+      this.bytes = bytes;
+      this.payloadOffset = payloadOffset;
+      this.binary = binary;
+      this.softExpiry = softExpiry;
+      this.hardExpiry = hardExpiry;
+    }
+
+    public boolean isAbsent() {
+      return bytes.length == payloadOffset;
+    }
+
+    public boolean isStale(long now) {
+      return now >= softExpiry;
+    }
+
+    public boolean isExpired(long now) {
+      return now >= hardExpiry;
+    }
+  }
+}
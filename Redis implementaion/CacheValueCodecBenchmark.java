@@ -0,0 +1,90 @@
+package com.adidas.next.shippingapi.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.cache.CacheValueCodec;
+import com.adidas.next.shippingapi.entity.SiteId;
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the legacy JSON layout with the binary Smile layout of {@link CacheValueCodec} for a cached site.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.adidas.next.shippingapi.benchmark.CacheValueCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+  private static final String SITE_ID_JSON = "{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"}";
+
+  private CacheValueCodec jsonCodec;
+  private CacheValueCodec smileCodec;
+  private SiteId siteId;
+  private byte[] legacyValue;
+  private byte[] jsonValue;
+  private byte[] smileValue;
+
+  @Setup
+  public void setUp() {
+    JsonObjectMapper jsonObjectMapper = new JsonObjectMapper(new ObjectMapper());
+    jsonCodec = new CacheValueCodec(jsonObjectMapper, new Jackson2ObjectMapperBuilder());
+    smileCodec = new CacheValueCodec(jsonObjectMapper, new Jackson2ObjectMapperBuilder());
+    ReflectionTestUtils.setField(smileCodec, "format", "smile");
+    siteId = jsonObjectMapper.jsonStringToObject(SiteId.class, SITE_ID_JSON);
+    legacyValue = SITE_ID_JSON.getBytes(StandardCharsets.UTF_8);
+    long now = System.currentTimeMillis();
+    jsonValue = jsonCodec.encode(siteId, now, now);
+    smileValue = smileCodec.encode(siteId, now, now);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() {
+    return jsonCodec.encode(siteId, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  @Benchmark
+  public byte[] encodeSmile() {
+    return smileCodec.encode(siteId, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  @Benchmark
+  public SiteId decodeLegacyJson() {
+    return jsonCodec.read(jsonCodec.decode(legacyValue), SiteId.class);
+  }
+
+  @Benchmark
+  public SiteId decodeJson() {
+    return jsonCodec.read(jsonCodec.decode(jsonValue), SiteId.class);
+  }
+
+  @Benchmark
+  public SiteId decodeSmile() {
+    return smileCodec.read(smileCodec.decode(smileValue), SiteId.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CacheValueCodecBenchmark.class.getSimpleName()).build()).run();
+  }
+}
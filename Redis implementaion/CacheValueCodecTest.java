@@ -0,0 +1,67 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.cache.CacheValueCodec.CachedValue;
+import com.adidas.next.shippingapi.entity.SiteId;
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CacheValueCodecTest {
+
+  private static final String SITE_ID_JSON = "{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"}";
+
+  CacheValueCodec cacheValueCodec;
+
+  @BeforeEach
+  void setUp() {
+    cacheValueCodec = new CacheValueCodec(new JsonObjectMapper(new ObjectMapper()), new Jackson2ObjectMapperBuilder());
+  }
+
+  @Test
+  void testReadsLegacyPlainJson() {
+    CachedValue cachedValue = cacheValueCodec.decode(SITE_ID_JSON.getBytes(StandardCharsets.UTF_8));
+
+    Assertions.assertFalse(cachedValue.isStale(System.currentTimeMillis()));
+    Assertions.assertEquals("adidas-US", cacheValueCodec.read(cachedValue, SiteId.class).getName());
+  }
+
+  @Test
+  void testJsonFormatKeepsLegacyLayout() {
+    byte[] encoded = cacheValueCodec.encode("adidas-US", 100, 200);
+
+    Assertions.assertEquals("swr:100:200:\"adidas-US\"", new String(encoded, StandardCharsets.UTF_8));
+    CachedValue cachedValue = cacheValueCodec.decode(encoded);
+    Assertions.assertTrue(cachedValue.isStale(100));
+    Assertions.assertFalse(cachedValue.isExpired(199));
+    Assertions.assertEquals("adidas-US", cacheValueCodec.read(cachedValue, String.class));
+  }
+
+  @Test
+  void testSmileFormatRoundTrip() {
+    ReflectionTestUtils.setField(cacheValueCodec, "format", CacheValueCodec.FORMAT_SMILE);
+    SiteId siteId = cacheValueCodec.read(cacheValueCodec.decode(SITE_ID_JSON.getBytes(StandardCharsets.UTF_8)),
+        SiteId.class);
+
+    byte[] encoded = cacheValueCodec.encode(siteId, 100, Long.MAX_VALUE);
+
+    Assertions.assertEquals(CacheValueCodec.BINARY_VERSION, encoded[0]);
+    CachedValue cachedValue = cacheValueCodec.decode(encoded);
+    Assertions.assertTrue(cachedValue.isStale(100));
+    Assertions.assertFalse(cachedValue.isExpired(Long.MAX_VALUE - 1));
+    Assertions.assertEquals("adidasUS", cacheValueCodec.read(cachedValue, SiteId.class).getEnterpriseCode());
+  }
+
+  @Test
+  void testAbsentMarkerInBothFormats() {
+    Assertions.assertTrue(cacheValueCodec.decode(cacheValueCodec.encode(null, 100, 200)).isAbsent());
+    ReflectionTestUtils.setField(cacheValueCodec, "format", CacheValueCodec.FORMAT_SMILE);
+    Assertions.assertTrue(cacheValueCodec.decode(cacheValueCodec.encode(null, 100, 200)).isAbsent());
+  }
+}
@@ -0,0 +1,72 @@
+package com.adidas.next.shippingapi.handler.cnc;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inclusion and exclusion rules of a CNC shipping method compiled into {@link RuleValueMatcher}s per rule type
+ * ({@code Postal_Code}, {@code State}, {@code Article}, ...), together with the excluded shipping method ids as a
+ * bit set. Instances are immutable and shared between requests; see {@link CNCRuleMatchers}.
+ */
+public final class CompiledCNCRules {
+
+  private final Map<String, RuleValueMatcher> inclusions;
+  private final Map<String, RuleValueMatcher> exclusions;
+  private final BitSet excludedShippingMethodIds;
+
+  private CompiledCNCRules(Map<String, RuleValueMatcher> inclusions, Map<String, RuleValueMatcher> exclusions,
+      BitSet excludedShippingMethodIds) {
+    this.inclusions = inclusions;
+    this.exclusions = exclusions;
+    this.excludedShippingMethodIds = excludedShippingMethodIds;
+  }
+
+  public static CompiledCNCRules compile(Map<String, ? extends Collection<String>> inclusionData,
+      Map<String, ? extends Collection<String>> exclusionData, Collection<Integer> excludedShippingMethodIds) {
+    return compile(inclusionData, exclusionData, excludedShippingMethodIds, false);
+  }
+
+  /**
+   * @param patterns whether rule entries may be prefixes and ranges, see {@link RuleValueMatcher#compile(Collection,
+   *     boolean)}
+   */
+  public static CompiledCNCRules compile(Map<String, ? extends Collection<String>> inclusionData,
+      Map<String, ? extends Collection<String>> exclusionData, Collection<Integer> excludedShippingMethodIds,
+      boolean patterns) {
+    BitSet excludedIds = new BitSet();
+    excludedShippingMethodIds.forEach(excludedIds::set);
+    return new CompiledCNCRules(compile(inclusionData, patterns), compile(exclusionData, patterns), excludedIds);
+  }
+
+  /**
+   * Tells whether a value of the given rule type, normalized with {@link RuleValueMatcher#normalize(String)}, passes
+   * the rules: it has to match the inclusion data of its type, if there is any, and must not match the exclusion
+   * data.
+   */
+  public boolean allows(String ruleType, String normalizedValue) {
+    RuleValueMatcher inclusion = inclusions.get(ruleType);
+    if (inclusion != null && !inclusion.matches(normalizedValue)) {
+      return false;
+    }
+    RuleValueMatcher exclusion = exclusions.get(ruleType);
+    return exclusion == null || !exclusion.matches(normalizedValue);
+  }
+
+  public boolean isExcluded(int shippingMethodId) {
+    return excludedShippingMethodIds.get(shippingMethodId);
+  }
+
+  private static Map<String, RuleValueMatcher> compile(Map<String, ? extends Collection<String>> data,
+      boolean patterns) {
+    Map<String, RuleValueMatcher> matchers = new HashMap<>();
+    data.forEach((ruleType, values) -> {
+      RuleValueMatcher matcher = RuleValueMatcher.compile(values, patterns);
+      if (!matcher.isEmpty()) {
+        matchers.put(ruleType, matcher);
+      }
+    });
+    return matchers;
+  }
+}
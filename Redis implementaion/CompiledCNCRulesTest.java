@@ -0,0 +1,85 @@
+package com.adidas.next.shippingapi.handler.cnc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompiledCNCRulesTest {
+
+  private static final String POSTAL_CODE = "Postal_Code";
+  private static final String ARTICLE = "Article";
+
+  @Test
+  void testMatcherComparesExactValuesIgnoringCaseAndSurroundingWhitespace() {
+    RuleValueMatcher matcher = RuleValueMatcher.compile(List.of(" sw1a 1aa ", "EC1*", "90000-90999"));
+
+    Assertions.assertTrue(matcher.matches(RuleValueMatcher.normalize("SW1A 1AA")));
+    Assertions.assertTrue(matcher.matches(RuleValueMatcher.normalize("ec1*")));
+    Assertions.assertTrue(matcher.matches("90000-90999"));
+    Assertions.assertFalse(matcher.matches(RuleValueMatcher.normalize("SW1A1AA")));
+    Assertions.assertFalse(matcher.matches(RuleValueMatcher.normalize("ec1v 9lt")));
+    Assertions.assertFalse(matcher.matches("90500"));
+    Assertions.assertFalse(matcher.matches(""));
+  }
+
+  @Test
+  void testMatcherWithPatternsHandlesExactValuesPrefixesAndRanges() {
+    RuleValueMatcher matcher = RuleValueMatcher.compile(List.of("sw1a 1aa", "EC1*", "90000-90999", "90500-91099",
+        "001-005"), true);
+
+    Assertions.assertTrue(matcher.matches(RuleValueMatcher.normalize("SW1A 1AA")));
+    Assertions.assertTrue(matcher.matches(RuleValueMatcher.normalize("ec1v 9lt")));
+    Assertions.assertTrue(matcher.matches("90000"));
+    Assertions.assertTrue(matcher.matches("91099"));
+    Assertions.assertTrue(matcher.matches("003"));
+    Assertions.assertFalse(matcher.matches("91100"));
+    Assertions.assertFalse(matcher.matches("0003"));
+    Assertions.assertFalse(matcher.matches("EC2A1NT"));
+    Assertions.assertFalse(matcher.matches(""));
+  }
+
+  @Test
+  void testRulesApplyInclusionThenExclusion() {
+    CompiledCNCRules rules = CompiledCNCRules.compile(
+        Map.of(POSTAL_CODE, List.of("10001-10299")),
+        Map.of(POSTAL_CODE, List.of("10013"), ARTICLE, List.of("M20323_530")),
+        List.of(7, 42), true);
+
+    Assertions.assertTrue(rules.allows(POSTAL_CODE, "10001"));
+    Assertions.assertFalse(rules.allows(POSTAL_CODE, "10013"));
+    Assertions.assertFalse(rules.allows(POSTAL_CODE, "94105"));
+    Assertions.assertTrue(rules.allows(ARTICLE, "EG4958_550"));
+    Assertions.assertFalse(rules.allows(ARTICLE, "M20323_530"));
+    Assertions.assertTrue(rules.allows("State", "NY"));
+    Assertions.assertTrue(rules.isExcluded(42));
+    Assertions.assertFalse(rules.isExcluded(43));
+  }
+
+  @Test
+  void testRulesAreCompiledOncePerVersion() {
+    CNCRuleMatchers ruleMatchers = new CNCRuleMatchers(100, 3600, false);
+    UUID shippingMethodId = UUID.fromString("760565d9-3e78-4b27-bf6e-b64912e3c531");
+    Map<String, List<String>> loaded = Map.of(POSTAL_CODE, List.of("10001"));
+    Map<String, List<String>> changed = Map.of(POSTAL_CODE, List.of("10001", "10002"));
+    String version = CNCRuleMatchers.version(loaded, Map.of(), List.of(7));
+
+    CompiledCNCRules first = ruleMatchers.get(shippingMethodId, version, loaded, Map.of(), List.of(7));
+    CompiledCNCRules reloaded = ruleMatchers.get(shippingMethodId, version, Map.of(POSTAL_CODE, List.of("10001")),
+        Map.of(), List.of(7));
+    CompiledCNCRules updated = ruleMatchers.get(shippingMethodId, CNCRuleMatchers.version(changed, Map.of(),
+        List.of(7)), changed, Map.of(), List.of(7));
+    CompiledCNCRules otherMethod = ruleMatchers.get(UUID.fromString("f5ffb268-5ae6-423e-8e88-58f4af0354c1"),
+        version, loaded, Map.of(), List.of(7));
+
+    Assertions.assertEquals(version, CNCRuleMatchers.version(Map.of(POSTAL_CODE, List.of("10001")), Map.of(),
+        List.of(7)));
+    Assertions.assertSame(first, reloaded);
+    Assertions.assertNotSame(first, updated);
+    Assertions.assertNotSame(first, otherMethod);
+    Assertions.assertFalse(first.allows(POSTAL_CODE, "10002"));
+    Assertions.assertTrue(updated.allows(POSTAL_CODE, "10002"));
+  }
+}
@@ -0,0 +1,29 @@
+package com.adidas.next.shippingapi.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.adidas.next.shippingapi.util.HedgedRequestExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hedging between the Delivery Promise Engine endpoints: requests to {@code deliverypromise} are hedged with
+ * {@code dpe-failover} once they are slower than the primary's recent p95.
+ */
+@Configuration
+public class DeliveryPromiseHedgingConfig {
+
+  @Bean
+  public HedgedRequestExecutor deliveryPromiseHedgedRequestExecutor(MeterRegistry meterRegistry,
+      @Value("${dpe-hedging.budget-percent:5}") double budgetPercent,
+      @Value("${dpe-hedging.initial-delay-millis:1500}") long initialDelay,
+      @Value("${dpe-hedging.min-delay-millis:200}") long minDelay,
+      @Value("${dpe-hedging.max-delay-millis:5000}") long maxDelay) {
+    return new HedgedRequestExecutor("deliverypromise", "deliverypromise", "dpe-failover", meterRegistry,
+        budgetPercent, Duration.ofMillis(initialDelay), Duration.ofMillis(minDelay), Duration.ofMillis(maxDelay));
+  }
+}
@@ -0,0 +1,131 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.resources.request.ShippingOptionsPostRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Short-lived cache of Delivery Promise Engine responses. Checkout asks for the same quote many times per session,
+ * so responses are kept in Redis under a fingerprint of the request parts DPE actually uses: site, fulfillment
+ * type, the destination address and the quantity per SKU. Line order, line ids and the casing, spacing and
+ * punctuation of the address do not change the fingerprint. Concurrent identical quotes share one DPE call.
+ * <p>
+ * Redis failures and entries that cannot be decoded never fail the quote; the call simply goes to DPE.
+ */
+@Slf4j
+@Component
+public class DeliveryPromiseResponseCache {
+
+  static final String GETS_METRIC = "dpe.response.cache.gets";
+  static final String KEY_PREFIX = "dpeResponse";
+
+  private final ReactiveRedisOperations<String, byte[]> redisOperations;
+  private final MeterRegistry meterRegistry;
+  private final CacheValueCodec cacheValueCodec;
+  private final SingleFlight singleFlight = new SingleFlight();
+
+  @Value("${dpe-response-cache.enabled:false}")
+  private boolean enabled;
+
+  @Value("${dpe-response-cache.ttl-seconds:60}")
+  private long defaultTtl;
+
+  @Value("#{${dpe-response-cache.site-ttl-seconds:{:}}}")
+  private Map<String, Long> siteTtls;
+
+  public DeliveryPromiseResponseCache(ReactiveRedisOperations<String, byte[]> redisOperations,
+      MeterRegistry meterRegistry, CacheValueCodec cacheValueCodec) {
+    this.redisOperations = redisOperations;
+    this.meterRegistry = meterRegistry;
+    this.cacheValueCodec = cacheValueCodec;
+  }
+
+  /**
+   * Returns the cached DPE response for the request and fulfillment type, calling DPE and caching its response on a
+   * miss. Requests are passed straight to DPE when the cache is disabled or the site TTL is zero.
+   */
+  public <T> Mono<T> get(ShippingOptionsPostRequest shippingOptionsRequest, String fulfillmentType, Class<T> type,
+      Supplier<Mono<T>> dpeCall) {
+    String siteId = shippingOptionsRequest.getSiteId();
+    Duration ttl = ttl(siteId);
+    if (!enabled || ttl.isZero()) {
+      counter(siteId, "bypass").increment();
+      return dpeCall.get();
+    }
+    String key = String.join("-", KEY_PREFIX, siteId, fingerprint(shippingOptionsRequest, fulfillmentType));
+    return redisOperations.opsForValue().get(key)
+        .map(cachedValue -> cacheValueCodec.read(cacheValueCodec.decode(cachedValue), type))
+        .doOnNext(response -> {
+          log.info("Get cached DPE response for key : {}", key);
+          counter(siteId, "hit").increment();
+        })
+        .onErrorResume(error -> {
+          log.warn("DPE response cache read failed for key : {}", key, error);
+          return Mono.empty();
+        })
+        .switchIfEmpty(Mono.defer(() -> {
+          counter(siteId, "miss").increment();
+          return singleFlight.execute(key, () -> dpeCall.get()
+              .flatMap(response -> redisOperations.opsForValue()
+                  .set(key, cacheValueCodec.encode(response, Long.MAX_VALUE, Long.MAX_VALUE), ttl)
+                  .onErrorResume(error -> {
+                    log.warn("DPE response cache write failed for key : {}", key, error);
+                    return Mono.empty();
+                  })
+                  .thenReturn(response)));
+        }));
+  }
+
+  String fingerprint(ShippingOptionsPostRequest shippingOptionsRequest, String fulfillmentType) {
+    var shippingAddress = shippingOptionsRequest.getShippingAddress();
+    SortedMap<String, Integer> quantitiesBySku = new TreeMap<>();
+    if (shippingOptionsRequest.getProductLines() != null) {
+      shippingOptionsRequest.getProductLines().forEach(productLine -> quantitiesBySku
+          .merge(productLine.getSku(), productLine.getQuantity(), Integer::sum));
+    }
+    if (shippingAddress == null) {
+      return fingerprint(shippingOptionsRequest.getSiteId(), fulfillmentType, null, null, null, null, List.of(),
+          quantitiesBySku);
+    }
+    return fingerprint(shippingOptionsRequest.getSiteId(), fulfillmentType, shippingAddress.getCountry(),
+        shippingAddress.getPostalCode(), shippingAddress.getState(), shippingAddress.getCity(),
+        Arrays.asList(shippingAddress.getAddressLine1(), shippingAddress.getAddressLine2()), quantitiesBySku);
+  }
+
+  static String fingerprint(String siteId, String fulfillmentType, String country, String postalCode, String state,
+      String city, List<String> addressLines, SortedMap<String, Integer> quantitiesBySku) {
+    StringBuilder canonical = new StringBuilder()
+        .append(siteId).append('|')
+        .append(fulfillmentType).append('|')
+        .append(CacheKeys.normalizeCode(country)).append('|')
+        .append(CacheKeys.normalizeCode(postalCode)).append('|')
+        .append(CacheKeys.normalizeCode(state)).append('|')
+        .append(CacheKeys.normalizeAddressLine(city));
+    addressLines.forEach(addressLine -> canonical.append('|').append(CacheKeys.normalizeAddressLine(addressLine)));
+    quantitiesBySku.forEach((sku, quantity) -> canonical.append('|').append(sku).append('=').append(quantity));
+    return CacheKeys.digest(canonical.toString());
+  }
+
+  private Duration ttl(String siteId) {
+    return Duration.ofSeconds(siteTtls.getOrDefault(siteId, defaultTtl));
+  }
+
+  private Counter counter(String siteId, String result) {
+    return meterRegistry.counter(GETS_METRIC, "site", siteId, "result", result);
+  }
+}
@@ -0,0 +1,151 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.TestHelper;
+import com.adidas.next.shippingapi.resources.request.ShippingOptionsPostRequest;
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryPromiseResponseCacheTest extends TestHelper {
+
+  private static final String HOME_DELIVERY = "HomeDelivery";
+
+  @Mock
+  ReactiveRedisOperations<String, byte[]> redisOperations;
+
+  @Mock
+  ReactiveValueOperations<String, byte[]> reactiveValueOperations;
+
+  SimpleMeterRegistry meterRegistry;
+
+  CacheValueCodec cacheValueCodec;
+
+  DeliveryPromiseResponseCache deliveryPromiseResponseCache;
+
+  ShippingOptionsPostRequest shippingOptionsRequest;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cacheValueCodec = new CacheValueCodec(new JsonObjectMapper(new ObjectMapper()), new Jackson2ObjectMapperBuilder());
+    deliveryPromiseResponseCache = new DeliveryPromiseResponseCache(redisOperations, meterRegistry, cacheValueCodec);
+    ReflectionTestUtils.setField(deliveryPromiseResponseCache, "enabled", true);
+    ReflectionTestUtils.setField(deliveryPromiseResponseCache, "defaultTtl", 60L);
+    ReflectionTestUtils.setField(deliveryPromiseResponseCache, "siteTtls", Map.of());
+    shippingOptionsRequest = buildShippingOptionsPostRequest();
+    Mockito.lenient().when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+  }
+
+  @Test
+  void testFingerprintIgnoresLineOrderAndAddressFormatting() {
+    TreeMap<String, Integer> quantities = new TreeMap<>(Map.of("M20323_530", 2, "EG4958_550", 1));
+    TreeMap<String, Integer> reordered = new TreeMap<>(Map.of("EG4958_550", 1, "M20323_530", 2));
+
+    String fingerprint = DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "gb", "sw1a 1aa",
+        null, "london", List.of("10 Downing St.", ""), quantities);
+
+    Assertions.assertEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AA", null, "LONDON", List.of("10  DOWNING ST", ""), reordered));
+    Assertions.assertNotEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AB", null, "London", List.of("10 Downing St", ""), reordered));
+    Assertions.assertNotEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AA", null, "London", List.of("11 Downing St", ""), reordered));
+    Assertions.assertNotEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AA", null, "London", List.of("10 Downing St", "Flat 2"), reordered));
+    Assertions.assertNotEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AA", "ENG", "London", List.of("10 Downing St", ""), reordered));
+    Assertions.assertNotEquals(fingerprint, DeliveryPromiseResponseCache.fingerprint("adidas-GB", HOME_DELIVERY, "GB",
+        "SW1A1AA", null, "London", List.of("10 Downing St", ""),
+        new TreeMap<>(Map.of("EG4958_550", 1, "M20323_530", 3))));
+  }
+
+  @Test
+  void testMissCallsDeliveryPromiseAndCachesResponse() {
+    Mockito.when(reactiveValueOperations.get(Mockito.anyString())).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.anyString(), Mockito.any(), Mockito.eq(Duration.ofSeconds(60))))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("quote"))).expectNext("quote").verifyComplete();
+
+    Mockito.verify(reactiveValueOperations).set(Mockito.startsWith(DeliveryPromiseResponseCache.KEY_PREFIX + "-"),
+        Mockito.any(), Mockito.eq(Duration.ofSeconds(60)));
+    Assertions.assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void testHitDoesNotCallDeliveryPromise() {
+    Mockito.when(reactiveValueOperations.get(Mockito.anyString()))
+        .thenReturn(Mono.just(cacheValueCodec.encode("quote", Long.MAX_VALUE, Long.MAX_VALUE)));
+
+    StepVerifier.create(get(() -> Mono.error(new IllegalStateException("unexpected DPE call"))))
+        .expectNext("quote").verifyComplete();
+
+    Assertions.assertEquals(1, count("hit"));
+  }
+
+  @Test
+  void testRedisFailureFallsBackToDeliveryPromise() {
+    Mockito.when(reactiveValueOperations.get(Mockito.anyString()))
+        .thenReturn(Mono.error(new IllegalStateException("redis unavailable")));
+    Mockito.when(reactiveValueOperations.set(Mockito.anyString(), Mockito.any(), Mockito.any(Duration.class)))
+        .thenReturn(Mono.error(new IllegalStateException("redis unavailable")));
+
+    StepVerifier.create(get(() -> Mono.just("quote"))).expectNext("quote").verifyComplete();
+  }
+
+  @Test
+  void testUndecodableEntryFallsBackToDeliveryPromise() {
+    Mockito.when(reactiveValueOperations.get(Mockito.anyString()))
+        .thenReturn(Mono.just("{broken".getBytes(StandardCharsets.UTF_8)));
+    Mockito.when(reactiveValueOperations.set(Mockito.anyString(), Mockito.any(), Mockito.eq(Duration.ofSeconds(60))))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("quote"))).expectNext("quote").verifyComplete();
+
+    Assertions.assertNull(meterRegistry.find(DeliveryPromiseResponseCache.GETS_METRIC).tag("result", "hit").counter());
+    Assertions.assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void testSiteWithoutTtlBypassesCache() {
+    ReflectionTestUtils.setField(deliveryPromiseResponseCache, "siteTtls",
+        Map.of(shippingOptionsRequest.getSiteId(), 0L));
+
+    StepVerifier.create(get(() -> Mono.just("quote"))).expectNext("quote").verifyComplete();
+
+    Mockito.verifyNoInteractions(redisOperations);
+    Assertions.assertEquals(1, count("bypass"));
+  }
+
+  private Mono<String> get(Supplier<Mono<String>> dpeCall) {
+    return deliveryPromiseResponseCache.get(shippingOptionsRequest, HOME_DELIVERY, String.class, dpeCall);
+  }
+
+  private double count(String result) {
+    return meterRegistry.get(DeliveryPromiseResponseCache.GETS_METRIC)
+        .tags("site", shippingOptionsRequest.getSiteId(), "result", result).counter().count();
+  }
+}
@@ -0,0 +1,89 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One bulkhead per downstream: a dedicated Reactor Netty connection pool and an {@link AdaptiveConcurrencyLimiter},
+ * so that a degraded dependency exhausts its own connections and permits instead of the pool shared by every
+ * outbound client. Pool metrics are published under {@code reactor.netty.connection.provider} with the downstream
+ * as pool name.
+ */
+@Component
+public class DownstreamBulkheads implements DisposableBean {
+
+  public static final String DELIVERY_PROMISE = "deliverypromise";
+  public static final String DELIVERY_PROMISE_MS = "deliverypromise-ms";
+  public static final String CNC_DPE = "cnc-dpe";
+  public static final String SSM_STORE = "ssm-store";
+  public static final String PUDO_AGGREGATOR = "pudo-aggregator";
+  public static final String GEOCODE = "geocode";
+  private static final List<String> DOWNSTREAMS = List.of(DELIVERY_PROMISE, DELIVERY_PROMISE_MS, CNC_DPE, SSM_STORE,
+      PUDO_AGGREGATOR, GEOCODE);
+
+  private final Map<String, ConnectionProvider> connectionProviders = new HashMap<>();
+  private final Map<String, AdaptiveConcurrencyLimiter> limiters = new HashMap<>();
+
+  public DownstreamBulkheads(MeterRegistry meterRegistry,
+      @Value("#{${bulkhead.max-connections:{:}}}") Map<String, Integer> maxConnections,
+      @Value("${bulkhead.default-max-connections:100}") int defaultMaxConnections,
+      @Value("${bulkhead.pending-acquire-timeout-millis:2000}") long pendingAcquireTimeout,
+      @Value("#{${bulkhead.latency-threshold-millis:{:}}}") Map<String, Long> latencyThresholds,
+      @Value("${bulkhead.default-latency-threshold-millis:2000}") long defaultLatencyThreshold,
+      @Value("${bulkhead.initial-limit:20}") int initialLimit,
+      @Value("${bulkhead.min-limit:2}") int minLimit,
+      @Value("${bulkhead.max-queue:50}") int maxQueue,
+      @Value("${bulkhead.max-wait-millis:1000}") long maxWait) {
+    for (String downstream : DOWNSTREAMS) {
+      int downstreamMaxConnections = maxConnections.getOrDefault(downstream, defaultMaxConnections);
+      connectionProviders.put(downstream, ConnectionProvider.builder(downstream)
+          .maxConnections(downstreamMaxConnections)
+          .pendingAcquireMaxCount(maxQueue)
+          .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+          .metrics(true)
+          .build());
+      limiters.put(downstream, new AdaptiveConcurrencyLimiter(downstream, meterRegistry,
+          Math.min(initialLimit, downstreamMaxConnections), minLimit, downstreamMaxConnections, maxQueue,
+          Duration.ofMillis(maxWait),
+          Duration.ofMillis(latencyThresholds.getOrDefault(downstream, defaultLatencyThreshold))));
+    }
+  }
+
+  /**
+   * Connection pool for the HTTP client of the downstream.
+   */
+  public ConnectionProvider connectionProvider(String downstream) {
+    return get(connectionProviders, downstream);
+  }
+
+  /**
+   * Runs a call to the downstream within its concurrency limit.
+   */
+  public <T> Mono<T> execute(String downstream, Supplier<Mono<T>> call) {
+    return get(limiters, downstream).execute(call);
+  }
+
+  @Override
+  public void destroy() {
+    connectionProviders.values().forEach(ConnectionProvider::dispose);
+  }
+
+  private static <V> V get(Map<String, V> bulkheads, String downstream) {
+    V bulkhead = bulkheads.get(downstream);
+    if (bulkhead == null) {
+      throw new IllegalArgumentException("No bulkhead for downstream " + downstream);
+    }
+    return bulkhead;
+  }
+}
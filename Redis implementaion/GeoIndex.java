@@ -0,0 +1,124 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory spatial index answering radius queries over a fixed set of locations. Locations are
+ * bucketed into a grid of {@value #CELL_DEGREES} degree cells, so a query only measures the distance to the
+ * locations in the cells overlapping the bounding box of its radius.
+ */
+public final class GeoIndex<T> {
+
+  static final double CELL_DEGREES = 0.25;
+  private static final double EARTH_RADIUS_KM = 6371.0088;
+  private static final double KM_PER_DEGREE = Math.toRadians(EARTH_RADIUS_KM);
+  private static final int ROWS = (int) (180 / CELL_DEGREES);
+  private static final int COLUMNS = (int) (360 / CELL_DEGREES);
+
+  private final Map<Integer, List<Entry<T>>> cells;
+  private final int size;
+
+  private GeoIndex(Map<Integer, List<Entry<T>>> cells, int size) {
+    this.cells = cells;
+    this.size = size;
+  }
+
+  /**
+   * Builds an index over the given locations. Callers are expected to leave out locations without coordinates.
+   */
+  public static <T> GeoIndex<T> of(Collection<T> locations, ToDoubleFunction<T> latitude,
+      ToDoubleFunction<T> longitude) {
+    Map<Integer, List<Entry<T>>> cells = new HashMap<>();
+    for (T location : locations) {
+      Entry<T> entry = new Entry<>(location, latitude.applyAsDouble(location), longitude.applyAsDouble(location));
+      cells.computeIfAbsent(cell(row(entry.latitude), column(entry.longitude)), cell -> new ArrayList<>()).add(entry);
+    }
+    return new GeoIndex<>(cells, locations.size());
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns up to {@code limit} locations within {@code radiusKm} of the given point, nearest first.
+   */
+  public List<T> nearby(double latitude, double longitude, double radiusKm, int limit) {
+    double latitudeDelta = radiusKm / KM_PER_DEGREE;
+    double longitudeDelta = latitudeDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+    int fromRow = Math.max(0, row(latitude - latitudeDelta));
+    int toRow = Math.min(ROWS - 1, row(latitude + latitudeDelta));
+    int columnSpan = (int) Math.ceil(Math.min(longitudeDelta, 180) / CELL_DEGREES);
+    int fromColumn = column(longitude) - columnSpan;
+    int toColumn = column(longitude) + columnSpan;
+    if (toColumn - fromColumn + 1 >= COLUMNS) {
+      fromColumn = 0;
+      toColumn = COLUMNS - 1;
+    }
+    List<Entry<T>> candidates = new ArrayList<>();
+    for (int row = fromRow; row <= toRow; row++) {
+      for (int column = fromColumn; column <= toColumn; column++) {
+        for (Entry<T> entry : cells.getOrDefault(cell(row, Math.floorMod(column, COLUMNS)), List.of())) {
+          double distance = distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+          if (distance <= radiusKm) {
+            candidates.add(new Entry<>(entry.location, distance));
+          }
+        }
+      }
+    }
+    return candidates.stream()
+        .sorted(Comparator.comparingDouble(entry -> entry.distance))
+        .limit(limit)
+        .map(entry -> entry.location)
+        .collect(Collectors.toList());
+  }
+
+  static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+    double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+    double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+    double a = Math.pow(Math.sin(latitudeDelta / 2), 2) + Math.cos(Math.toRadians(fromLatitude))
+        * Math.cos(Math.toRadians(toLatitude)) * Math.pow(Math.sin(longitudeDelta / 2), 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  private static int row(double latitude) {
+    return Math.min(ROWS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+  }
+
+  private static int column(double longitude) {
+    return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+  }
+
+  private static int cell(int row, int column) {
+    return row * COLUMNS + column;
+  }
+
+  private static final class Entry<T> {
+
+    private final T location;
+    private final double latitude;
+    private final double longitude;
+    private final double distance;
+
+    private Entry(T location, double latitude, double longitude) {
+      this.location = location;
+      this.latitude = latitude;
+      this.longitude = longitude;
+      this.distance = Double.NaN;
+    }
+
+    private Entry(T location, double distance) {
+      this.location = location;
+      this.latitude = Double.NaN;
+      this.longitude = Double.NaN;
+      this.distance = distance;
+    }
+  }
+}
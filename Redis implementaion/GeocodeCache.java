@@ -0,0 +1,139 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.cache.CacheValueCodec.CachedValue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Persistent cache of geocoding results in front of the Google geocode API. Addresses are keyed on their
+ * normalized country, postal code and address line, so differences in case, spacing and punctuation share one
+ * entry. Resolved addresses are kept for {@code geocode-cache.ttl-days}; addresses the API cannot resolve, signalled
+ * by an empty result, are cached as absent for the shorter {@code geocode-cache.negative-ttl-hours}. Concurrent
+ * lookups of the same address share one outbound call. Redis failures and entries that cannot be decoded are
+ * treated as misses.
+ */
+@Slf4j
+@Component
+public class GeocodeCache {
+
+  static final String GETS_METRIC = "geocode.cache.gets";
+  static final String API_CALLS_METRIC = "geocode.api.calls";
+  static final String API_CALLS_SAVED_METRIC = "geocode.api.calls.saved";
+  static final String KEY_PREFIX = "geocode";
+
+  private final ReactiveRedisOperations<String, byte[]> redisOperations;
+  private final MeterRegistry meterRegistry;
+  private final CacheValueCodec cacheValueCodec;
+  private final SingleFlight singleFlight = new SingleFlight();
+
+  @Value("${geocode-cache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${geocode-cache.ttl-days:30}")
+  private long ttl;
+
+  @Value("${geocode-cache.negative-ttl-hours:24}")
+  private long negativeTtl;
+
+  public GeocodeCache(ReactiveRedisOperations<String, byte[]> redisOperations, MeterRegistry meterRegistry,
+      CacheValueCodec cacheValueCodec) {
+    this.redisOperations = redisOperations;
+    this.meterRegistry = meterRegistry;
+    this.cacheValueCodec = cacheValueCodec;
+  }
+
+  /**
+   * Returns the cached geocoding result for the address, calling the geocode API on a miss. Completes empty for
+   * addresses known to be unresolvable.
+   */
+  public <T> Mono<T> get(String country, String postalCode, String addressLine, Class<T> type,
+      Supplier<Mono<T>> geocodeCall) {
+    if (!enabled) {
+      return geocodeCall.get();
+    }
+    String key = key(country, postalCode, addressLine);
+    return redisOperations.opsForValue().get(key)
+        .map(cacheValueCodec::decode)
+        .map(cachedValue -> cachedValue.isAbsent() ? Optional.<T>empty()
+            : Optional.of(cacheValueCodec.read(cachedValue, type)))
+        .onErrorResume(error -> {
+          log.warn("Geocode cache read failed for key : {}", key, error);
+          return Mono.empty();
+        })
+        .doOnNext(cached -> {
+          apiCallsSaved().increment();
+          counter(cached.isPresent() ? "hit" : "negative_hit").increment();
+        })
+        .switchIfEmpty(Mono.defer(() -> {
+          counter("miss").increment();
+          AtomicBoolean called = new AtomicBoolean();
+          return singleFlight.execute(key, () -> {
+            called.set(true);
+            return geocode(key, geocodeCall);
+          })
+              .doOnTerminate(() -> {
+                if (!called.get()) {
+                  apiCallsSaved().increment();
+                }
+              })
+              .map(cachedValue -> cachedValue.isAbsent() ? Optional.<T>empty()
+                  : Optional.of(cacheValueCodec.read(cachedValue, type)));
+        }))
+        .flatMap(Mono::justOrEmpty);
+  }
+
+  static String key(String country, String postalCode, String addressLine) {
+    String normalizedCountry = CacheKeys.normalizeCode(country);
+    return String.join("-", KEY_PREFIX, normalizedCountry, CacheKeys.digest(String.join("|", normalizedCountry,
+        CacheKeys.normalizeCode(postalCode), CacheKeys.normalizeAddressLine(addressLine))));
+  }
+
+  /**
+   * Calls the API and stores the outcome. The outcome is shared between coalesced callers as its encoded form, since
+   * an empty result has to reach all of them as well.
+   */
+  private <T> Mono<CachedValue> geocode(String key, Supplier<Mono<T>> geocodeCall) {
+    return geocodeCall.get()
+        .doOnNext(resolved -> apiCalls("resolved").increment())
+        .map(resolved -> cacheValueCodec.encode(resolved, Long.MAX_VALUE, Long.MAX_VALUE))
+        .switchIfEmpty(Mono.fromSupplier(() -> {
+          log.info("Caching unresolvable address for key : {}", key);
+          apiCalls("unresolved").increment();
+          return cacheValueCodec.encode(null, Long.MAX_VALUE, Long.MAX_VALUE);
+        }))
+        .flatMap(encoded -> {
+          CachedValue cachedValue = cacheValueCodec.decode(encoded);
+          Duration entryTtl = cachedValue.isAbsent() ? Duration.ofHours(negativeTtl) : Duration.ofDays(ttl);
+          return redisOperations.opsForValue().set(key, encoded, entryTtl)
+              .onErrorResume(error -> {
+                log.warn("Geocode cache write failed for key : {}", key, error);
+                return Mono.empty();
+              })
+              .thenReturn(cachedValue);
+        });
+  }
+
+  private Counter counter(String result) {
+    return meterRegistry.counter(GETS_METRIC, "result", result);
+  }
+
+  private Counter apiCalls(String outcome) {
+    return meterRegistry.counter(API_CALLS_METRIC, "outcome", outcome);
+  }
+
+  private Counter apiCallsSaved() {
+    return meterRegistry.counter(API_CALLS_SAVED_METRIC);
+  }
+}
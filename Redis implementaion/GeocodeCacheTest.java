@@ -0,0 +1,143 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class GeocodeCacheTest {
+
+  private static final String KEY = GeocodeCache.key("US", "10001", "350 5th Ave");
+
+  @Mock
+  ReactiveRedisOperations<String, byte[]> redisOperations;
+
+  @Mock
+  ReactiveValueOperations<String, byte[]> reactiveValueOperations;
+
+  SimpleMeterRegistry meterRegistry;
+
+  CacheValueCodec cacheValueCodec;
+
+  GeocodeCache geocodeCache;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cacheValueCodec = new CacheValueCodec(new JsonObjectMapper(new ObjectMapper()), new Jackson2ObjectMapperBuilder());
+    geocodeCache = new GeocodeCache(redisOperations, meterRegistry, cacheValueCodec);
+    ReflectionTestUtils.setField(geocodeCache, "enabled", true);
+    ReflectionTestUtils.setField(geocodeCache, "ttl", 30L);
+    ReflectionTestUtils.setField(geocodeCache, "negativeTtl", 24L);
+    Mockito.lenient().when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+  }
+
+  @Test
+  void testKeyIgnoresCaseSpacingAndPunctuation() {
+    Assertions.assertEquals(KEY, GeocodeCache.key("us", " 10001 ", "350  5th ave."));
+    Assertions.assertNotEquals(KEY, GeocodeCache.key("US", "10002", "350 5th Ave"));
+  }
+
+  @Test
+  void testHitDoesNotCallGeocodeApi() {
+    Mockito.when(reactiveValueOperations.get(KEY))
+        .thenReturn(Mono.just(cacheValueCodec.encode("40.7484,-73.9857", Long.MAX_VALUE, Long.MAX_VALUE)));
+
+    StepVerifier.create(get(() -> Mono.error(new IllegalStateException("unexpected geocode call"))))
+        .expectNext("40.7484,-73.9857").verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.GETS_METRIC).tags("result", "hit").counter().count());
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.API_CALLS_SAVED_METRIC).counter().count());
+  }
+
+  @Test
+  void testUnresolvableAddressIsCachedWithNegativeTtl() {
+    Mockito.when(reactiveValueOperations.get(KEY)).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(KEY), Mockito.any(), Mockito.eq(Duration.ofHours(24))))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(Mono::empty)).verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.API_CALLS_METRIC).tags("outcome", "unresolved")
+        .counter().count());
+  }
+
+  @Test
+  void testNegativeHitCompletesEmpty() {
+    Mockito.when(reactiveValueOperations.get(KEY))
+        .thenReturn(Mono.just(cacheValueCodec.encode(null, Long.MAX_VALUE, Long.MAX_VALUE)));
+
+    StepVerifier.create(get(() -> Mono.error(new IllegalStateException("unexpected geocode call"))))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.GETS_METRIC).tags("result", "negative_hit")
+        .counter().count());
+  }
+
+  @Test
+  void testUndecodableEntryFallsBackToGeocodeApi() {
+    Mockito.when(reactiveValueOperations.get(KEY)).thenReturn(Mono.just("{broken".getBytes(StandardCharsets.UTF_8)));
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(KEY), Mockito.any(), Mockito.eq(Duration.ofDays(30))))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("40.7484,-73.9857"))).expectNext("40.7484,-73.9857").verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.GETS_METRIC).tags("result", "miss").counter().count());
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.API_CALLS_METRIC).tags("outcome", "resolved")
+        .counter().count());
+  }
+
+  @Test
+  void testConcurrentLookupsShareOneCall() {
+    Sinks.One<String> response = Sinks.one();
+    AtomicInteger calls = new AtomicInteger();
+    Mockito.when(reactiveValueOperations.get(KEY)).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(KEY), Mockito.any(), Mockito.eq(Duration.ofDays(30))))
+        .thenReturn(Mono.just(true));
+
+    Mono<String> first = get(() -> {
+      calls.incrementAndGet();
+      return response.asMono();
+    });
+    Mono<String> second = get(() -> {
+      calls.incrementAndGet();
+      return response.asMono();
+    });
+
+    StepVerifier.create(Mono.zip(first, second))
+        .then(() -> response.tryEmitValue("40.7484,-73.9857"))
+        .assertNext(results -> {
+          Assertions.assertEquals("40.7484,-73.9857", results.getT1());
+          Assertions.assertEquals("40.7484,-73.9857", results.getT2());
+        })
+        .verifyComplete();
+
+    Assertions.assertEquals(1, calls.get());
+    Assertions.assertEquals(1, meterRegistry.get(GeocodeCache.API_CALLS_SAVED_METRIC).counter().count());
+  }
+
+  private Mono<String> get(Supplier<Mono<String>> geocodeCall) {
+    return geocodeCache.get("US", "10001", "350 5th Ave", String.class, geocodeCall);
+  }
+}
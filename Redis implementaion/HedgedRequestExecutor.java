@@ -0,0 +1,171 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Sends a request to a primary endpoint and, when no answer arrived within the primary's recent p95 latency, sends
+ * the same request to a secondary endpoint and takes whichever succeeds first. The loser is cancelled. A primary
+ * that fails before the hedge was sent fails the request right away, leaving error handling to the caller.
+ * <p>
+ * The hedge delay follows a decaying latency histogram of the primary, clamped between a minimum and maximum
+ * delay. Until enough samples exist the initial delay is used. The percentile is read from the histogram at most
+ * once a second rather than per request. Primary calls cancelled because the hedge won are recorded with the time
+ * they ran, so slow answers still push the delay up. Hedges are paid from a token budget: every request
+ * deposits {@code budgetPercent / 100} of a token and a hedge costs one, so at most that share of traffic is
+ * duplicated, even when the primary is slow across the board.
+ */
+@Slf4j
+public class HedgedRequestExecutor {
+
+  static final String LATENCY_METRIC = "hedged.request.latency";
+  static final String HEDGES_METRIC = "hedged.request.hedges";
+  private static final double PERCENTILE = 0.95;
+  private static final long MIN_SAMPLES = 100;
+  private static final long TOKEN = 1000;
+  private static final long MAX_TOKENS = 10 * TOKEN;
+  private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final String name;
+  private final String primaryName;
+  private final String secondaryName;
+  private final MeterRegistry meterRegistry;
+  private final Timer primaryLatency;
+  private final Timer secondaryLatency;
+  private final long tokensPerRequest;
+  private final Duration initialDelay;
+  private final Duration minDelay;
+  private final Duration maxDelay;
+  private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+  private final AtomicLong nextDelayRefresh;
+  private volatile Duration currentDelay;
+
+  public HedgedRequestExecutor(String name, String primaryName, String secondaryName, MeterRegistry meterRegistry,
+      double budgetPercent, Duration initialDelay, Duration minDelay, Duration maxDelay) {
+    this.name = name;
+    this.primaryName = primaryName;
+    this.secondaryName = secondaryName;
+    this.meterRegistry = meterRegistry;
+    this.primaryLatency = latencyTimer(primaryName);
+    this.secondaryLatency = latencyTimer(secondaryName);
+    this.tokensPerRequest = Math.round(budgetPercent * TOKEN / 100);
+    this.initialDelay = initialDelay;
+    this.minDelay = minDelay;
+    this.maxDelay = maxDelay;
+    this.currentDelay = initialDelay;
+    this.nextDelayRefresh = new AtomicLong(System.nanoTime() + DELAY_REFRESH_NANOS);
+  }
+
+  /**
+   * Runs {@code primary}, hedged with {@code secondary}. When the primary fails before the hedge delay, or both
+   * fail, the error of the primary is propagated.
+   */
+  public <T> Mono<T> execute(Supplier<Mono<T>> primary, Supplier<Mono<T>> secondary) {
+    return Mono.defer(() -> {
+      deposit();
+      Duration delay = hedgeDelay();
+      Sinks.One<Boolean> primaryFailed = Sinks.one();
+      Mono<T> primaryCall = timed(primaryLatency, primary.get())
+          .doOnError(error -> primaryFailed.tryEmitValue(true));
+      Mono<T> secondaryCall = Mono.delay(delay)
+          .takeUntilOther(primaryFailed.asMono())
+          .filter(tick -> {
+            boolean hedged = tryAcquire();
+            meterRegistry.counter(HEDGES_METRIC, "client", name, "result", hedged ? "sent" : "over_budget")
+                .increment();
+            return hedged;
+          })
+          .flatMap(tick -> {
+            log.info("No answer from {} after {} ms, hedging with {}", primaryName, delay.toMillis(), secondaryName);
+            return timed(secondaryLatency, secondary.get());
+          });
+      return Mono.firstWithValue(primaryCall, secondaryCall)
+          .onErrorMap(NoSuchElementException.class, HedgedRequestExecutor::primaryError);
+    });
+  }
+
+  Duration hedgeDelay() {
+    long now = System.nanoTime();
+    long nextRefresh = nextDelayRefresh.get();
+    if (now - nextRefresh >= 0 && nextDelayRefresh.compareAndSet(nextRefresh, now + DELAY_REFRESH_NANOS)) {
+      refreshHedgeDelay();
+    }
+    return currentDelay;
+  }
+
+  void refreshHedgeDelay() {
+    currentDelay = observedHedgeDelay();
+  }
+
+  private Duration observedHedgeDelay() {
+    if (primaryLatency.count() < MIN_SAMPLES) {
+      return initialDelay;
+    }
+    for (ValueAtPercentile percentile : primaryLatency.takeSnapshot().percentileValues()) {
+      if (percentile.percentile() == PERCENTILE) {
+        Duration observed = Duration.ofMillis((long) percentile.value(TimeUnit.MILLISECONDS));
+        if (observed.compareTo(minDelay) < 0) {
+          return minDelay;
+        }
+        return observed.compareTo(maxDelay) > 0 ? maxDelay : observed;
+      }
+    }
+    return initialDelay;
+  }
+
+  /**
+   * {@link Mono#firstWithValue} reports the failure of all sources as one error carrying the individual errors in
+   * source order; the first one is the primary's.
+   */
+  private static Throwable primaryError(NoSuchElementException error) {
+    List<Throwable> errors = error.getCause() == null ? Arrays.asList(error.getSuppressed())
+        : Exceptions.unwrapMultiple(error.getCause());
+    return errors.stream().filter(Objects::nonNull).findFirst().orElse(error);
+  }
+
+  private <T> Mono<T> timed(Timer timer, Mono<T> call) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return call.doFinally(signalType -> sample.stop(timer));
+    });
+  }
+
+  private Timer latencyTimer(String endpoint) {
+    return Timer.builder(LATENCY_METRIC)
+        .tags("client", name, "endpoint", endpoint)
+        .publishPercentiles(PERCENTILE)
+        .publishPercentileHistogram()
+        .distributionStatisticExpiry(Duration.ofMinutes(2))
+        .distributionStatisticBufferLength(4)
+        .register(meterRegistry);
+  }
+
+  private void deposit() {
+    tokens.accumulateAndGet(tokensPerRequest, (current, deposit) -> Math.min(MAX_TOKENS, current + deposit));
+  }
+
+  private boolean tryAcquire() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+}
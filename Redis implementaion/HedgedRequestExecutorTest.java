@@ -0,0 +1,142 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class HedgedRequestExecutorTest {
+
+  SimpleMeterRegistry meterRegistry;
+
+  HedgedRequestExecutor hedgedRequestExecutor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    hedgedRequestExecutor = new HedgedRequestExecutor("deliverypromise", "primary", "failover", meterRegistry, 5,
+        Duration.ofSeconds(1), Duration.ofMillis(200), Duration.ofSeconds(2));
+  }
+
+  @Test
+  void testFastPrimaryIsNotHedged() {
+    AtomicInteger secondaryCalls = new AtomicInteger();
+
+    StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+        () -> Mono.just("primary").delayElement(Duration.ofMillis(500)),
+        () -> {
+          secondaryCalls.incrementAndGet();
+          return Mono.just("failover");
+        }))
+        .thenAwait(Duration.ofMillis(500))
+        .expectNext("primary")
+        .verifyComplete();
+
+    Assertions.assertEquals(0, secondaryCalls.get());
+  }
+
+  @Test
+  void testSlowPrimaryIsHedgedAndFirstSuccessWins() {
+    StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+        () -> Mono.just("primary").delayElement(Duration.ofSeconds(10)),
+        () -> Mono.just("failover").delayElement(Duration.ofMillis(300))))
+        .thenAwait(Duration.ofMillis(1300))
+        .expectNext("failover")
+        .verifyComplete();
+
+    Assertions.assertEquals(1, hedges("sent"));
+  }
+
+  @Test
+  void testHedgesAreCappedByBudget() {
+    for (int i = 0; i < 11; i++) {
+      StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+          () -> Mono.just("primary").delayElement(Duration.ofSeconds(3)),
+          () -> Mono.just("failover")))
+          .thenAwait(Duration.ofSeconds(3))
+          .expectNextCount(1)
+          .verifyComplete();
+    }
+
+    Assertions.assertEquals(10, hedges("sent"));
+    Assertions.assertEquals(1, hedges("over_budget"));
+  }
+
+  @Test
+  void testPrimaryErrorIsPropagatedWhenBothFail() {
+    IllegalStateException primaryError = new IllegalStateException("primary unavailable");
+
+    StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+        () -> Mono.<String>error(primaryError),
+        () -> Mono.error(new IllegalStateException("failover unavailable"))))
+        .thenAwait(Duration.ofSeconds(1))
+        .expectErrorMatches(error -> error == primaryError)
+        .verify();
+  }
+
+  @Test
+  void testFastPrimaryFailureDoesNotWaitForHedgeDelay() {
+    IllegalStateException primaryError = new IllegalStateException("primary unavailable");
+    AtomicInteger secondaryCalls = new AtomicInteger();
+
+    StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+        () -> Mono.delay(Duration.ofMillis(20)).then(Mono.<String>error(primaryError)),
+        () -> {
+          secondaryCalls.incrementAndGet();
+          return Mono.just("failover");
+        }))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(19))
+        .thenAwait(Duration.ofMillis(1))
+        .expectErrorMatches(error -> error == primaryError)
+        .verify();
+
+    Assertions.assertEquals(0, secondaryCalls.get());
+    Assertions.assertNull(meterRegistry.find(HedgedRequestExecutor.HEDGES_METRIC).counter());
+  }
+
+  @Test
+  void testHedgeDelayFollowsPrimaryLatency() {
+    Assertions.assertEquals(Duration.ofSeconds(1), hedgedRequestExecutor.hedgeDelay());
+
+    Timer primaryLatency = meterRegistry.get(HedgedRequestExecutor.LATENCY_METRIC).tags("endpoint", "primary").timer();
+    for (int i = 0; i < 200; i++) {
+      primaryLatency.record(400, TimeUnit.MILLISECONDS);
+    }
+    Assertions.assertEquals(Duration.ofSeconds(1), hedgedRequestExecutor.hedgeDelay());
+    hedgedRequestExecutor.refreshHedgeDelay();
+    long delay = hedgedRequestExecutor.hedgeDelay().toMillis();
+    Assertions.assertTrue(delay >= 350 && delay <= 450, "hedge delay was " + delay);
+
+    for (int i = 0; i < 2000; i++) {
+      primaryLatency.record(8, TimeUnit.SECONDS);
+    }
+    hedgedRequestExecutor.refreshHedgeDelay();
+    Assertions.assertEquals(Duration.ofSeconds(2), hedgedRequestExecutor.hedgeDelay());
+  }
+
+  @Test
+  void testCancelledPrimaryIsRecorded() {
+    StepVerifier.withVirtualTime(() -> hedgedRequestExecutor.execute(
+        () -> Mono.just("primary").delayElement(Duration.ofSeconds(10)),
+        () -> Mono.just("failover")))
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext("failover")
+        .verifyComplete();
+
+    Assertions.assertEquals(1,
+        meterRegistry.get(HedgedRequestExecutor.LATENCY_METRIC).tags("endpoint", "primary").timer().count());
+  }
+
+  private double hedges(String result) {
+    return meterRegistry.get(HedgedRequestExecutor.HEDGES_METRIC).tags("result", result).counter().count();
+  }
+}
@@ -1,108 +1,171 @@
 package com.adidas.next.shippingapi.util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.stereotype.Component;
 
 import com.adidas.next.shippingapi.constant.ErrorConstants;
+import com.adidas.next.shippingapi.entity.FulfillmentOption;
 import com.adidas.next.shippingapi.exception.ShippingApiException;
 import com.adidas.next.shippingapi.resources.response.CarrierStringRecord;
 import com.adidas.next.shippingapi.resources.response.ShippingMethod;
 import com.adidas.next.shippingapi.resources.response.pudo.LocationPUDO;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 
 import io.r2dbc.postgresql.codec.Json;
 
+/**
+ * Jackson facade used for database columns and cache payloads. Readers and writers are immutable and thread-safe,
+ * so one instance per target type is built up front for the types read on every request and lazily for the rest,
+ * instead of resolving the {@link JavaType} and root deserializer on each call.
+ * <p>
+ * {@link Json} columns are parsed as a stream straight from the driver's buffer rather than through
+ * {@link Json#asString()}, so large name maps and rule columns are never copied into an intermediate String.
+ */
 @Component
 public class JsonObjectMapper {
 
   private final ObjectMapper objectMapper;
-  
+  private final ObjectReader stringMapReader;
+  private final ObjectReader objectMapReader;
+  private final JavaType objectMapType;
+  private final ObjectWriter writer;
+  private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, ObjectReader> listReaders = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, ObjectReader> mapReaders = new ConcurrentHashMap<>();
+
   public JsonObjectMapper(ObjectMapper objectMapper) {
     this.objectMapper = objectMapper;
+    TypeFactory typeFactory = objectMapper.getTypeFactory();
+    this.objectMapType = typeFactory.constructMapType(Map.class, String.class, Object.class);
+    this.stringMapReader = objectMapper.readerFor(typeFactory.constructMapType(Map.class, String.class, String.class));
+    this.objectMapReader = objectMapper.readerFor(objectMapType);
+    this.writer = objectMapper.writer();
+    for (Class<?> elementType : List.of(FulfillmentOption.class, CarrierStringRecord.class, ShippingMethod.class,
+        LocationPUDO.class)) {
+      listReader(elementType);
+    }
   }
 
   public Map<String, String> jsonStringToMap(Json json) {
     try {
-      return objectMapper.readValue(json.asString(), objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class));
-    } catch (JsonProcessingException e) {
+      return stringMapReader.readValue(json.asInputStream());
+    } catch (IOException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
-  
+
   public Map<String, Object> jsonStringToMapObject(Json json) {
     try {
-      return objectMapper.readValue(json.asString(), objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
-    } catch (JsonProcessingException e) {
+      return objectMapReader.readValue(json.asInputStream());
+    } catch (IOException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
-  
+
   public <T> Object jsonToObject(Json json, Class<T> className) {
     try {
-      return objectMapper.readValue(json.asString(), objectMapper.getTypeFactory().constructType(className));
-    } catch (JsonProcessingException e) {
+      return reader(className).readValue(json.asInputStream());
+    } catch (IOException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
 
   public <T> Map<String, T> jsonStringToMap(Json json, Class<T> className) {
     try {
-      return objectMapper.readValue(json.asString(), objectMapper.getTypeFactory().constructMapType(Map.class, String.class, className));
-    } catch (JsonProcessingException e) {
+      return mapReader(className).readValue(json.asInputStream());
+    } catch (IOException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
 
   public <T> List<T> jsonStringToList(Json json, Class<T> className) {
     try {
-      return objectMapper.readValue(json.asString(),
-          objectMapper.getTypeFactory().constructCollectionType(List.class, className));
-    } catch (JsonProcessingException e) {
+      return listReader(className).readValue(json.asInputStream());
+    } catch (IOException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
 
   public <T> Json toJson(T data) {
     try {
-      return Json.of(objectMapper.writeValueAsString(data));
+      return Json.of(writer.writeValueAsBytes(data));
     } catch (JsonProcessingException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
-  
+
   public <T> Map<String, Object> objectToMap(T object) {
-      return objectMapper.convertValue(object, objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+      return objectMapper.convertValue(object, objectMapType);
   }
-  
+
   public <T> String toJsonString(T data) {
     try {
-     return  objectMapper.writeValueAsString(data);
+     return writer.writeValueAsString(data);
     } catch (JsonProcessingException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
-  
+
+  public <T> byte[] toJsonBytes(T data) {
+    try {
+      return writer.writeValueAsBytes(data);
+    } catch (JsonProcessingException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
   public <T> T jsonStringToObject(Class<T> clazz, String jsonString) {
     try {
-      return objectMapper.readValue(jsonString, clazz);
+      return reader(clazz).readValue(jsonString);
     } catch (JsonProcessingException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
 
+  public <T> T jsonBytesToObject(Class<T> clazz, byte[] bytes) {
+    return jsonBytesToObject(clazz, bytes, 0, bytes.length);
+  }
+
+  public <T> T jsonBytesToObject(Class<T> clazz, byte[] bytes, int offset, int length) {
+    try {
+      return reader(clazz).readValue(bytes, offset, length);
+    } catch (IOException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
+  public <T> T jsonBytesToObject(Class<T> clazz, ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return jsonBytesToObject(clazz, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+    try {
+      return reader(clazz).readValue(new ByteBufferBackedInputStream(buffer.duplicate()));
+    } catch (IOException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
   public <T> List<T> jsonStringToListOfObject(String jsonString, Class<T> className) {
     try {
-      return objectMapper.readValue(jsonString,
-          objectMapper.getTypeFactory().constructCollectionType(List.class, className));
+      return listReader(className).readValue(jsonString);
     } catch (JsonProcessingException e) {
       throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
     }
   }
- 
+
   public List<CarrierStringRecord> objectToList(Object object, TypeReference<List<CarrierStringRecord>> typeReference) {
     return objectMapper.convertValue(object, typeReference);
   }
@@ -116,4 +179,18 @@ public class JsonObjectMapper {
    return objectMapper.convertValue(object, typeReference);
   }
 
+  private ObjectReader reader(Class<?> className) {
+    return readers.computeIfAbsent(className, objectMapper::readerFor);
+  }
+
+  private ObjectReader listReader(Class<?> elementType) {
+    return listReaders.computeIfAbsent(elementType, type -> objectMapper
+        .readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, type)));
+  }
+
+  private ObjectReader mapReader(Class<?> valueType) {
+    return mapReaders.computeIfAbsent(valueType, type -> objectMapper
+        .readerFor(objectMapper.getTypeFactory().constructMapType(Map.class, String.class, type)));
+  }
+
 }
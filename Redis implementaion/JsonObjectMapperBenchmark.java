@@ -0,0 +1,111 @@
+package com.adidas.next.shippingapi.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.r2dbc.postgresql.codec.Json;
+
+/**
+ * Compares decoding {@link Json} columns through {@link Json#asString()} with the streaming path of
+ * {@link JsonObjectMapper} for localized names, CNC rule data and PUDO locations. Run with the GC profiler to see
+ * the allocation per row: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.adidas.next.shippingapi.benchmark.JsonObjectMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonObjectMapperBenchmark {
+
+  private ObjectMapper objectMapper;
+  private JsonObjectMapper jsonObjectMapper;
+  private JavaType stringMapType;
+  private JavaType objectMapType;
+  private JavaType locationsType;
+  private byte[] names;
+  private byte[] rules;
+  private byte[] locations;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    objectMapper = new ObjectMapper();
+    jsonObjectMapper = new JsonObjectMapper(objectMapper);
+    stringMapType = objectMapper.getTypeFactory().constructMapType(Map.class, String.class, String.class);
+    objectMapType = objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+    locationsType = objectMapper.getTypeFactory().constructCollectionType(List.class, Map.class);
+    names = objectMapper.writeValueAsBytes(IntStream.range(0, 40).boxed()
+        .collect(Collectors.toMap(i -> "locale_" + i, i -> "Click and Collect in store " + i)));
+    rules = objectMapper.writeValueAsBytes(Map.of(
+        "inclusionRuleTypes", List.of("Postal_Code", "State", "Article"),
+        "inclusionData", IntStream.range(0, 2000).mapToObj(i -> String.format("%05d", 90000 + i))
+            .collect(Collectors.toList()),
+        "exclusionData", IntStream.range(0, 500).mapToObj(i -> "M" + (20000 + i) + "_530")
+            .collect(Collectors.toList())));
+    locations = objectMapper.writeValueAsBytes(IntStream.range(0, 50).mapToObj(i -> Map.of(
+        "id", "PUDO-" + i,
+        "name", "Pick up point " + i,
+        "address", Map.of("street", i + " Main Street", "city", "Portland", "postalCode", "97201"),
+        "geo", Map.of("latitude", 45.5 + i / 1000.0, "longitude", -122.6 - i / 1000.0),
+        "openingHours", List.of("Mo-Fr 09:00-20:00", "Sa 10:00-18:00")))
+        .collect(Collectors.toList()));
+  }
+
+  @Benchmark
+  public Object namesViaString() throws JsonProcessingException {
+    return objectMapper.readValue(Json.of(names).asString(), stringMapType);
+  }
+
+  @Benchmark
+  public Object namesStreaming() {
+    return jsonObjectMapper.jsonStringToMap(Json.of(names));
+  }
+
+  @Benchmark
+  public Object rulesViaString() throws JsonProcessingException {
+    return objectMapper.readValue(Json.of(rules).asString(), objectMapType);
+  }
+
+  @Benchmark
+  public Object rulesStreaming() {
+    return jsonObjectMapper.jsonStringToMapObject(Json.of(rules));
+  }
+
+  @Benchmark
+  public Object locationsViaString() throws JsonProcessingException {
+    return objectMapper.readValue(Json.of(locations).asString(), locationsType);
+  }
+
+  @Benchmark
+  public Object locationsStreaming() {
+    return jsonObjectMapper.jsonStringToList(Json.of(locations), Map.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JsonObjectMapperBenchmark.class.getSimpleName())
+        .addProfiler("gc").build()).run();
+  }
+}
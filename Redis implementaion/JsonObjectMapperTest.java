@@ -1,12 +1,17 @@
 package com.adidas.next.shippingapi.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,9 +26,10 @@ import com.adidas.next.shippingapi.resources.request.ShippingMethodPrice;
 import com.adidas.next.shippingapi.resources.request.ShippingPatchRequest;
 import com.adidas.next.shippingapi.resources.response.Location;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import io.r2dbc.postgresql.codec.Json;
@@ -31,25 +37,36 @@ import io.r2dbc.postgresql.codec.Json;
 @ExtendWith(MockitoExtension.class)
 class JsonObjectMapperTest extends TestHelper {
 
-  @InjectMocks
   JsonObjectMapper jsonObjectMapper;
 
   @Mock
   ObjectMapper objectMapper;
 
+  @Mock
+  ObjectReader objectReader;
+
+  @Mock
+  ObjectWriter objectWriter;
+
+  @BeforeEach
+  void setUp() {
+    Mockito.lenient().when(objectMapper.getTypeFactory()).thenReturn(TypeFactory.defaultInstance());
+    Mockito.lenient().when(objectMapper.readerFor(Mockito.any(JavaType.class))).thenReturn(objectReader);
+    Mockito.lenient().when(objectMapper.readerFor(Mockito.any(Class.class))).thenReturn(objectReader);
+    Mockito.lenient().when(objectMapper.writer()).thenReturn(objectWriter);
+    jsonObjectMapper = new JsonObjectMapper(objectMapper);
+  }
+
   @Test
   void testJsonStringToMapSuccess() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      MapType mapType = typeFactory.constructMapType(Map.class, String.class, String.class);
-      Mockito.when(objectMapper.readValue(Mockito.anyString(), Mockito.eq(mapType)))
-          .thenReturn(Map.of("en_EN", "Click And Collect"));
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenReturn(Map.of("en_EN", "Click And Collect"));
       Map<String, String> nameMap = jsonObjectMapper.jsonStringToMap(Json.of("{en_EN : Click And Collect}"));
       Assertions.assertNotNull(nameMap);
       Assertions.assertNotNull(nameMap.get("en_EN"));
-    } catch (JsonProcessingException e) {
+      Mockito.verify(objectMapper).readerFor(
+          TypeFactory.defaultInstance().constructMapType(Map.class, String.class, String.class));
+    } catch (IOException e) {
       Assertions.fail(e.getMessage());
     }
   }
@@ -57,16 +74,23 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   void testJsonStringToMapFailure() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      MapType mapType = typeFactory.constructMapType(Map.class, String.class, String.class);
-      Mockito.when(objectMapper.readValue(Mockito.anyString(), Mockito.eq(mapType)))
-          .thenThrow(new JsonProcessingException("error") {
-          });
-      jsonObjectMapper.jsonStringToMap(Json.of("data"));
-    } catch (ShippingApiException e) {
-    } catch (JsonProcessingException e) {
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenThrow(new JsonProcessingException("error") {
+      });
+      Assertions.assertThrows(ShippingApiException.class, () -> jsonObjectMapper.jsonStringToMap(Json.of("data")));
+    } catch (IOException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+  
+  @Test
+  void testJsonColumnIsParsedWithoutStringCopy() {
+    try {
+      Json json = Mockito.mock(Json.class);
+      Mockito.when(json.asInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenReturn(Map.of());
+      Assertions.assertNotNull(jsonObjectMapper.jsonStringToMapObject(json));
+      Mockito.verify(json, Mockito.never()).asString();
+    } catch (IOException e) {
       Assertions.fail(e.getMessage());
     }
   }
@@ -74,14 +98,12 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   void testJsonStringToListSuccess() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      CollectionType listType = typeFactory.constructCollectionType(List.class, ShippingMethodPrice.class);
-      Mockito.when(objectMapper.readValue("{threshold : 123}", listType)).thenReturn(List.of("threshold", 123));
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenReturn(List.of("threshold", 123));
       List<ShippingMethodPrice> list = jsonObjectMapper.jsonStringToList(Json.of("{threshold : 123}"), ShippingMethodPrice.class);
       Assertions.assertNotNull(list);
-    } catch (JsonProcessingException e) {
+      Mockito.verify(objectMapper).readerFor(
+          TypeFactory.defaultInstance().constructCollectionType(List.class, ShippingMethodPrice.class));
+    } catch (IOException e) {
       Assertions.fail(e.getMessage());
     }
   }
@@ -89,16 +111,11 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   void testJsonStringToListFailure() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, ShippingMethodPrice.class);
-          Mockito.when(objectMapper.readValue("data", listType))
-          .thenThrow(new JsonProcessingException("error") {
-          });
-      jsonObjectMapper.jsonStringToList(Json.of("data"), ShippingMethodPrice.class);
-    } catch (ShippingApiException e) {
-    }catch (JsonProcessingException e) {
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenThrow(new JsonProcessingException("error") {
+      });
+      Assertions.assertThrows(ShippingApiException.class,
+          () -> jsonObjectMapper.jsonStringToList(Json.of("data"), ShippingMethodPrice.class));
+    } catch (IOException e) {
       Assertions.fail(e.getMessage());
     }
   }
@@ -106,8 +123,8 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testJsonSuccess() {
     try {
-      Mockito.when(objectMapper.writeValueAsString(Mockito.anyMap()))
-          .thenReturn(Map.of("en_EN", "Click And Collect").toString());
+      Mockito.when(objectWriter.writeValueAsBytes(Mockito.anyMap()))
+          .thenReturn(Map.of("en_EN", "Click And Collect").toString().getBytes(StandardCharsets.UTF_8));
       Json nameJson = jsonObjectMapper.toJson(Map.of("en_EN", "Click And Collect"));
       Assertions.assertNotNull(nameJson);
       Assertions.assertEquals(nameJson.asString(), "{en_EN=Click And Collect}");
@@ -119,13 +136,11 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testJsonFailure() {
     try {
-      Mockito.when(objectMapper.writeValueAsString(Mockito.anyMap()))
+      Mockito.when(objectWriter.writeValueAsBytes(Mockito.anyMap()))
           .thenThrow(new JsonProcessingException("JsonProcessingException") {
           });
-      Json nameJson = jsonObjectMapper.toJson(Map.of("en_EN", "Click And Collect"));
-      Assertions.assertNotNull(nameJson);
-      Assertions.assertEquals(nameJson.asString(), "{en_EN=Click And Collect}");
-    } catch (ShippingApiException e) {
+      Assertions.assertThrows(ShippingApiException.class,
+          () -> jsonObjectMapper.toJson(Map.of("en_EN", "Click And Collect")));
     } catch (JsonProcessingException e) {
       Assertions.fail(e.getMessage());
     }
@@ -135,10 +150,7 @@ class JsonObjectMapperTest extends TestHelper {
   public void testObjectToMap() throws IllegalArgumentException {
     ShippingPatchRequest patchRequest = buildShippingPatchRequest();
     Map<String, Object> greaterMap = Map.of("type", "nonExistingType");
-    ObjectMapper mapper = new ObjectMapper();
-    Object spec = mapper.convertValue(greaterMap, Object.class);
-    TypeFactory typeFactory = mapper.getTypeFactory();
-    Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
+    Object spec = new ObjectMapper().convertValue(greaterMap, Object.class);
     jsonObjectMapper.objectToMap(patchRequest);
     Assertions.assertNotNull(spec);
   }
@@ -146,7 +158,7 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testToJsonString() {
     try {
-      Mockito.when(objectMapper.writeValueAsString(Mockito.any()))
+      Mockito.when(objectWriter.writeValueAsString(Mockito.any()))
           .thenReturn("{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"");
       String siteId = jsonObjectMapper.toJsonString(prepareSiteId());
       Assertions.assertNotNull(siteId);
@@ -159,10 +171,20 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testToJsonStringFaliure() {
     try {
-      Mockito.when(objectMapper.writeValueAsString(Mockito.any())).thenThrow(new JsonProcessingException("error") {
+      Mockito.when(objectWriter.writeValueAsString(Mockito.any())).thenThrow(new JsonProcessingException("error") {
       });
-      jsonObjectMapper.toJsonString(prepareSiteId());
-    } catch (ShippingApiException e) {
+      Assertions.assertThrows(ShippingApiException.class, () -> jsonObjectMapper.toJsonString(prepareSiteId()));
+    } catch (JsonProcessingException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testToJsonBytes() {
+    try {
+      byte[] json = "{\"id\":11}".getBytes(StandardCharsets.UTF_8);
+      Mockito.when(objectWriter.writeValueAsBytes(Mockito.any())).thenReturn(json);
+      Assertions.assertSame(json, jsonObjectMapper.toJsonBytes(prepareSiteId()));
     } catch (JsonProcessingException e) {
       Assertions.fail(e.getMessage());
     }
@@ -171,7 +193,7 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testJsonStringToObject() {
     try {
-      Mockito.when( objectMapper.readValue("{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"", SiteId.class))
+      Mockito.when(objectReader.readValue("{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\""))
           .thenReturn(prepareSiteId());
       SiteId siteId = jsonObjectMapper.jsonStringToObject(SiteId.class, "{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"");
       Assertions.assertNotNull(siteId);
@@ -185,30 +207,78 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testJsonStringToObjectFailure() {
     try {
-      Mockito.when( objectMapper.readValue("{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"", SiteId.class)).thenThrow(new JsonProcessingException("error") {
+      Mockito.when(objectReader.readValue("{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"")).thenThrow(new JsonProcessingException("error") {
       });
-      jsonObjectMapper.jsonStringToObject(SiteId.class, "{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\"");
-    } catch (ShippingApiException e) {
+      Assertions.assertThrows(ShippingApiException.class, () -> jsonObjectMapper.jsonStringToObject(SiteId.class,
+          "{\"id\":11,\"name\":\"adidas-US\",\"enterpriseCode\":\"adidasUS\""));
+    } catch (JsonProcessingException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testObjectReaderIsBuiltOncePerType() {
+    try {
+      Mockito.when(objectReader.readValue(Mockito.anyString())).thenReturn(prepareSiteId());
+      jsonObjectMapper.jsonStringToObject(SiteId.class, "{\"id\":11}");
+      jsonObjectMapper.jsonStringToObject(SiteId.class, "{\"id\":11}");
+      Mockito.verify(objectMapper, Mockito.times(1)).readerFor(SiteId.class);
     } catch (JsonProcessingException e) {
       Assertions.fail(e.getMessage());
     }
   }
 
+  @Test
+  public void testJsonBytesToObject() {
+    try {
+      byte[] json = "xx{\"id\":11}".getBytes(StandardCharsets.UTF_8);
+      Mockito.when(objectReader.readValue(json, 2, json.length - 2)).thenReturn(prepareSiteId());
+      Assertions.assertEquals("adidas-US", jsonObjectMapper.jsonBytesToObject(SiteId.class, json, 2, json.length - 2).getName());
+      Assertions.assertEquals("adidas-US",
+          jsonObjectMapper.jsonBytesToObject(SiteId.class, ByteBuffer.wrap(json, 2, json.length - 2)).getName());
+    } catch (IOException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testJsonBytesToObjectFromDirectBuffer() {
+    try {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(16).put("{\"id\":11}".getBytes(StandardCharsets.UTF_8)).flip();
+      Mockito.when(objectReader.readValue(Mockito.any(InputStream.class))).thenReturn(prepareSiteId());
+      Assertions.assertEquals("adidas-US", jsonObjectMapper.jsonBytesToObject(SiteId.class, buffer).getName());
+      Assertions.assertEquals(0, buffer.position());
+    } catch (IOException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testJsonBytesToObjectFailure() {
+    try {
+      Mockito.when(objectReader.readValue(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt()))
+          .thenThrow(new JsonProcessingException("error") {
+          });
+      Assertions.assertThrows(ShippingApiException.class,
+          () -> jsonObjectMapper.jsonBytesToObject(SiteId.class, "data".getBytes(StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      Assertions.fail(e.getMessage());
+    }
+  }
+
   @Test
   public void testJsonStringToListOfObject() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      CollectionType listType = typeFactory.constructCollectionType(List.class, FulfillmentOption.class);
-      Mockito.when(objectMapper.readValue(
-          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]", listType)).thenReturn(List.of(prepareShippingOption()));
+      Mockito.when(objectReader.readValue(
+          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]")).thenReturn(List.of(prepareShippingOption()));
       List<FulfillmentOption> list = jsonObjectMapper.jsonStringToListOfObject(
           "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]", FulfillmentOption.class);
       Assertions.assertNotNull(list);
       Assertions.assertEquals("HomeDelivery", list.get(0).getFulfillmentType());
       Assertions.assertEquals(Map.of("en-US", "HomeDelivery"), list.get(0).getDescription());
       Assertions.assertEquals(Map.of("en-US", "HomeDelivery"), list.get(0).getName());
+      Mockito.verify(objectMapper, Mockito.times(1)).readerFor(
+          TypeFactory.defaultInstance().constructCollectionType(List.class, FulfillmentOption.class));
     } catch (JsonProcessingException e) {
       Assertions.fail(e.getMessage());
     }
@@ -217,16 +287,11 @@ class JsonObjectMapperTest extends TestHelper {
   @Test
   public void testJsonStringToListOfObjectFailure() {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      TypeFactory typeFactory = mapper.getTypeFactory();
-      Mockito.when(objectMapper.getTypeFactory()).thenReturn(typeFactory);
-      CollectionType listType = typeFactory.constructCollectionType(List.class, FulfillmentOption.class);
-      Mockito.when(objectMapper.readValue(
-          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]", listType)).thenThrow(new JsonProcessingException("error") {
+      Mockito.when(objectReader.readValue(
+          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]")).thenThrow(new JsonProcessingException("error") {
           });
-      jsonObjectMapper.jsonStringToListOfObject(
-          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]", FulfillmentOption.class);
-    } catch (ShippingApiException e) {
+      Assertions.assertThrows(ShippingApiException.class, () -> jsonObjectMapper.jsonStringToListOfObject(
+          "[{\"fulfillmentType\":\"HomeDelivery\",\"name\":\"HomeDelivery\",\"description\":\"HomeDelivery\"}]", FulfillmentOption.class));
     } catch (JsonProcessingException e) {
       Assertions.fail(e.getMessage());
     }
@@ -0,0 +1,110 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically refreshed local copy of the locations of a region (the SSM stores or PUDO points of a country),
+ * answering radius queries from a {@link GeoIndex} instead of the remote location API. Queries for a region that
+ * was never loaded, or whose last successful refresh is older than the maximum age, go to the remote call. A failed
+ * refresh, or one that does not finish within the refresh timeout, keeps the previous snapshot, which then ages out.
+ */
+@Slf4j
+public class LocationIndex<T> {
+
+  static final String QUERIES_METRIC = "location.index.queries";
+  static final String SIZE_METRIC = "location.index.size";
+  static final String REFRESHES_METRIC = "location.index.refreshes";
+
+  private final String name;
+  private final MeterRegistry meterRegistry;
+  private final Function<String, Flux<T>> regionLoader;
+  private final ToDoubleFunction<T> latitude;
+  private final ToDoubleFunction<T> longitude;
+  private final Duration maxAge;
+  private final Duration refreshTimeout;
+  private final Map<String, Snapshot<T>> snapshots = new ConcurrentHashMap<>();
+
+  public LocationIndex(String name, MeterRegistry meterRegistry, Function<String, Flux<T>> regionLoader,
+      ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude, Duration maxAge, Duration refreshTimeout) {
+    this.name = name;
+    this.meterRegistry = meterRegistry;
+    this.regionLoader = regionLoader;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.maxAge = maxAge;
+    this.refreshTimeout = refreshTimeout;
+    Gauge.builder(SIZE_METRIC, snapshots, indexed -> indexed.values().stream()
+        .mapToInt(snapshot -> snapshot.index.size()).sum())
+        .tag("index", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Refreshes the given regions now and then every {@code interval}. Dispose the result to stop refreshing.
+   */
+  public Disposable scheduleRefresh(Collection<String> regions, Duration interval) {
+    return Flux.interval(Duration.ZERO, interval)
+        .onBackpressureDrop()
+        .concatMap(tick -> Flux.fromIterable(regions).concatMap(this::refresh))
+        .subscribe();
+  }
+
+  public Mono<Void> refresh(String region) {
+    return regionLoader.apply(region)
+        .collectList()
+        .timeout(refreshTimeout)
+        .doOnNext(locations -> {
+          snapshots.put(region, new Snapshot<>(GeoIndex.of(locations, latitude, longitude),
+              System.currentTimeMillis()));
+          log.info("Indexed {} {} locations for region : {}", locations.size(), name, region);
+          meterRegistry.counter(REFRESHES_METRIC, "index", name, "result", "success").increment();
+        })
+        .onErrorResume(error -> {
+          log.warn("Refreshing {} locations failed for region : {}", name, region, error);
+          meterRegistry.counter(REFRESHES_METRIC, "index", name, "result", "failure").increment();
+          return Mono.empty();
+        })
+        .then();
+  }
+
+  /**
+   * Returns up to {@code limit} locations of the region within {@code radiusKm} of the given point, nearest first,
+   * from the local index when it is fresh and from {@code remote} otherwise.
+   */
+  public Mono<List<T>> nearby(String region, double latitude, double longitude, double radiusKm, int limit,
+      Supplier<Mono<List<T>>> remote) {
+    Snapshot<T> snapshot = snapshots.get(region);
+    if (snapshot == null || System.currentTimeMillis() - snapshot.loadedAt >= maxAge.toMillis()) {
+      meterRegistry.counter(QUERIES_METRIC, "index", name, "result", snapshot == null ? "missing" : "stale")
+          .increment();
+      return remote.get();
+    }
+    meterRegistry.counter(QUERIES_METRIC, "index", name, "result", "local").increment();
+    return Mono.just(snapshot.index.nearby(latitude, longitude, radiusKm, limit));
+  }
+
+  private static final class Snapshot<T> {
+
+    private final GeoIndex<T> index;
+    private final long loadedAt;
+
+    private Snapshot(GeoIndex<T> index, long loadedAt) {
+      this.index = index;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
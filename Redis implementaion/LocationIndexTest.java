@@ -0,0 +1,121 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class LocationIndexTest {
+
+  private static final double[] TIMES_SQUARE = {40.7580, -73.9855};
+  private static final double[] EMPIRE_STATE = {40.7484, -73.9857};
+  private static final double[] JERSEY_CITY = {40.7178, -74.0431};
+  private static final double[] BOSTON = {42.3601, -71.0589};
+
+  SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void testGeoIndexReturnsLocationsWithinRadiusNearestFirst() {
+    GeoIndex<double[]> index = GeoIndex.of(List.of(BOSTON, JERSEY_CITY, TIMES_SQUARE, EMPIRE_STATE),
+        location -> location[0], location -> location[1]);
+
+    Assertions.assertEquals(List.of(EMPIRE_STATE, TIMES_SQUARE, JERSEY_CITY),
+        index.nearby(40.7484, -73.9857, 10, 10));
+    Assertions.assertEquals(List.of(EMPIRE_STATE), index.nearby(40.7484, -73.9857, 10, 1));
+    Assertions.assertEquals(4, index.nearby(40.7484, -73.9857, 400, 10).size());
+  }
+
+  @Test
+  void testGeoIndexHandlesDateLine() {
+    double[] fiji = {-17.8, 179.9};
+    GeoIndex<double[]> index = GeoIndex.of(List.of(fiji), location -> location[0], location -> location[1]);
+
+    Assertions.assertEquals(List.of(fiji), index.nearby(-17.8, -179.9, 50, 10));
+  }
+
+  @Test
+  void testNearbyIsAnsweredLocallyOnceRegionIsLoaded() {
+    LocationIndex<double[]> locationIndex = locationIndex(Duration.ofHours(1),
+        region -> Flux.just(TIMES_SQUARE, BOSTON));
+
+    StepVerifier.create(locationIndex.refresh("US")).verifyComplete();
+    StepVerifier.create(locationIndex.nearby("US", 40.7484, -73.9857, 10, 10,
+        () -> Mono.error(new IllegalStateException("unexpected remote call"))))
+        .expectNext(List.of(TIMES_SQUARE))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, count("local"));
+    Assertions.assertEquals(2, meterRegistry.get(LocationIndex.SIZE_METRIC).gauge().value());
+  }
+
+  @Test
+  void testNearbyFallsBackToRemoteForMissingOrStaleRegion() {
+    LocationIndex<double[]> locationIndex = locationIndex(Duration.ZERO, region -> Flux.just(TIMES_SQUARE));
+
+    StepVerifier.create(locationIndex.nearby("US", 40.7484, -73.9857, 10, 10, () -> Mono.just(List.of(BOSTON))))
+        .expectNext(List.of(BOSTON))
+        .verifyComplete();
+    StepVerifier.create(locationIndex.refresh("US")).verifyComplete();
+    StepVerifier.create(locationIndex.nearby("US", 40.7484, -73.9857, 10, 10, () -> Mono.just(List.of(BOSTON))))
+        .expectNext(List.of(BOSTON))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, count("missing"));
+    Assertions.assertEquals(1, count("stale"));
+  }
+
+  @Test
+  void testFailedRefreshKeepsPreviousSnapshot() {
+    AtomicInteger refreshes = new AtomicInteger();
+    LocationIndex<double[]> locationIndex = locationIndex(Duration.ofHours(1), region -> refreshes.getAndIncrement() == 0
+        ? Flux.just(TIMES_SQUARE) : Flux.error(new IllegalStateException("store API unavailable")));
+
+    StepVerifier.create(locationIndex.refresh("US")).verifyComplete();
+    StepVerifier.create(locationIndex.refresh("US")).verifyComplete();
+
+    StepVerifier.create(locationIndex.nearby("US", 40.7484, -73.9857, 10, 10,
+        () -> Mono.error(new IllegalStateException("unexpected remote call"))))
+        .expectNext(List.of(TIMES_SQUARE))
+        .verifyComplete();
+    Assertions.assertEquals(1, meterRegistry.get(LocationIndex.REFRESHES_METRIC)
+        .tags("index", "stores", "result", "failure").counter().count());
+  }
+
+  @Test
+  void testHangingRefreshTimesOutAndCountsAsFailure() {
+    LocationIndex<double[]> locationIndex = locationIndex(Duration.ofHours(1), region -> Flux.never());
+
+    StepVerifier.withVirtualTime(() -> locationIndex.refresh("US"))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofSeconds(29))
+        .thenAwait(Duration.ofSeconds(1))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, meterRegistry.get(LocationIndex.REFRESHES_METRIC)
+        .tags("index", "stores", "result", "failure").counter().count());
+  }
+
+  private LocationIndex<double[]> locationIndex(Duration maxAge,
+      Function<String, Flux<double[]>> regionLoader) {
+    return new LocationIndex<>("stores", meterRegistry, regionLoader, location -> location[0],
+        location -> location[1], maxAge, Duration.ofSeconds(30));
+  }
+
+  private double count(String result) {
+    return meterRegistry.get(LocationIndex.QUERIES_METRIC).tags("index", "stores", "result", result).counter().count();
+  }
+}
@@ -0,0 +1,74 @@
+package com.adidas.next.shippingapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC connection pool that times every connection acquisition under {@code r2dbc.pool.acquire}. The pool is
+ * exposed through {@link Wrapped}, so Spring Boot publishes its acquired, idle, pending and allocated gauges under
+ * {@code r2dbc.pool.*} with the bean name as pool name.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+  static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+  private final String name;
+  private final ConnectionPool pool;
+  private final MeterRegistry meterRegistry;
+
+  public MeteredConnectionFactory(String name, ConnectionPool pool, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.pool = pool;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Mono<Connection> create() {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return pool.create()
+          .doOnSuccess(connection -> sample.stop(acquireTimer("success")))
+          .doOnError(error -> sample.stop(acquireTimer("failure")));
+    });
+  }
+
+  @Override
+  public ConnectionFactoryMetadata getMetadata() {
+    return pool.getMetadata();
+  }
+
+  @Override
+  public ConnectionFactory unwrap() {
+    return pool;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Tells whether every connection the pool may open is in use, so a new acquisition would have to wait.
+   */
+  public boolean isSaturated() {
+    return pool.getMetrics()
+        .map(metrics -> metrics.acquiredSize() >= metrics.getMaxAllocatedSize())
+        .orElse(false);
+  }
+
+  public void dispose() {
+    pool.dispose();
+  }
+
+  private Timer acquireTimer(String outcome) {
+    return Timer.builder(ACQUIRE_METRIC)
+        .tags("name", name, "outcome", outcome)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+  }
+}
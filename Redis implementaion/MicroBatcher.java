@@ -0,0 +1,109 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Gathers single-key lookups arriving within a short window into one batched call. Keys are batched per partition,
+ * such as the site, since one downstream call can only serve one partition. A batch is sent when it reaches the
+ * maximum size or when the maximum wait since its first key has passed, whichever comes first; identical keys in a
+ * batch are sent once and share the answer. At low load a lookup is delayed by at most the maximum wait; a maximum
+ * batch size of one turns batching off.
+ */
+@Slf4j
+public class MicroBatcher<K, V> {
+
+  static final String BATCH_SIZE_METRIC = "micro.batch.size";
+  static final String REQUESTS_METRIC = "micro.batch.requests";
+
+  private final String name;
+  private final MeterRegistry meterRegistry;
+  private final BiFunction<String, Set<K>, Mono<Map<K, V>>> batchCall;
+  private final int maxBatchSize;
+  private final Duration maxWait;
+  private final DistributionSummary batchSize;
+  private final Map<String, Batch<K, V>> pending = new HashMap<>();
+
+  /**
+   * @param batchCall answers the given keys of a partition; keys missing from its result complete empty
+   */
+  public MicroBatcher(String name, MeterRegistry meterRegistry, BiFunction<String, Set<K>, Mono<Map<K, V>>> batchCall,
+      int maxBatchSize, Duration maxWait) {
+    this.name = name;
+    this.meterRegistry = meterRegistry;
+    this.batchCall = batchCall;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWait = maxWait;
+    this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+        .tag("batcher", name)
+        .register(meterRegistry);
+  }
+
+  public Mono<V> submit(String partition, K key) {
+    return Mono.defer(() -> {
+      meterRegistry.counter(REQUESTS_METRIC, "batcher", name).increment();
+      Sinks.One<V> sink;
+      Batch<K, V> fullBatch = null;
+      synchronized (pending) {
+        Batch<K, V> batch = pending.get(partition);
+        if (batch == null) {
+          Batch<K, V> newBatch = new Batch<>();
+          batch = newBatch;
+          pending.put(partition, newBatch);
+          newBatch.timer = Mono.delay(maxWait).subscribe(tick -> flushIfPending(partition, newBatch));
+        }
+        sink = batch.sinks.computeIfAbsent(key, k -> Sinks.one());
+        if (batch.sinks.size() >= maxBatchSize) {
+          pending.remove(partition);
+          batch.timer.dispose();
+          fullBatch = batch;
+        }
+      }
+      if (fullBatch != null) {
+        flush(partition, fullBatch);
+      }
+      return sink.asMono();
+    });
+  }
+
+  private void flushIfPending(String partition, Batch<K, V> batch) {
+    synchronized (pending) {
+      if (!pending.remove(partition, batch)) {
+        return;
+      }
+    }
+    flush(partition, batch);
+  }
+
+  private void flush(String partition, Batch<K, V> batch) {
+    batchSize.record(batch.sinks.size());
+    log.debug("Sending {} batch of {} keys for partition : {}", name, batch.sinks.size(), partition);
+    Mono.defer(() -> batchCall.apply(partition, batch.sinks.keySet()))
+        .defaultIfEmpty(Map.of())
+        .subscribe(values -> batch.sinks.forEach((key, sink) -> {
+          V value = values.get(key);
+          if (value == null) {
+            sink.tryEmitEmpty();
+          } else {
+            sink.tryEmitValue(value);
+          }
+        }), error -> batch.sinks.values().forEach(sink -> sink.tryEmitError(error)));
+  }
+
+  private static final class Batch<K, V> {
+
+    private final Map<K, Sinks.One<V>> sinks = new LinkedHashMap<>();
+    private Disposable timer;
+  }
+}
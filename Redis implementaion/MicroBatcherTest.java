@@ -0,0 +1,95 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class MicroBatcherTest {
+
+  SimpleMeterRegistry meterRegistry;
+
+  List<Set<String>> batches;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    batches = new ArrayList<>();
+  }
+
+  @Test
+  void testLookupsWithinWindowShareOneCall() {
+    MicroBatcher<String, String> batcher = batcher(10, Duration.ofMillis(5));
+
+    StepVerifier.withVirtualTime(() -> Mono.zip(batcher.submit("adidas-US", "EG4958_550"),
+        batcher.submit("adidas-US", "M20323_530"), batcher.submit("adidas-US", "EG4958_550")))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(4))
+        .thenAwait(Duration.ofMillis(1))
+        .assertNext(results -> {
+          Assertions.assertEquals("available-EG4958_550", results.getT1());
+          Assertions.assertEquals("available-M20323_530", results.getT2());
+          Assertions.assertEquals("available-EG4958_550", results.getT3());
+        })
+        .verifyComplete();
+
+    Assertions.assertEquals(List.of(Set.of("EG4958_550", "M20323_530")), batches);
+  }
+
+  @Test
+  void testFullBatchIsSentWithoutWaiting() {
+    MicroBatcher<String, String> batcher = batcher(2, Duration.ofSeconds(1));
+
+    StepVerifier.create(Mono.zip(batcher.submit("adidas-US", "EG4958_550"), batcher.submit("adidas-US", "M20323_530")))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    Assertions.assertEquals(1, batches.size());
+  }
+
+  @Test
+  void testPartitionsAreBatchedSeparately() {
+    MicroBatcher<String, String> batcher = batcher(10, Duration.ofMillis(5));
+
+    StepVerifier.withVirtualTime(() -> Mono.zip(batcher.submit("adidas-US", "EG4958_550"),
+        batcher.submit("adidas-CA", "EG4958_550")))
+        .thenAwait(Duration.ofMillis(5))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    Assertions.assertEquals(2, batches.size());
+  }
+
+  @Test
+  void testMissingKeyCompletesEmptyAndErrorsReachEveryCaller() {
+    MicroBatcher<String, String> partial = new MicroBatcher<>("cnc-dpe", meterRegistry,
+        (site, skus) -> Mono.just(Map.of()), 1, Duration.ofMillis(5));
+    MicroBatcher<String, String> failing = new MicroBatcher<>("cnc-dpe", meterRegistry,
+        (site, skus) -> Mono.error(new IllegalStateException("CNC DPE unavailable")), 10, Duration.ofMillis(5));
+
+    StepVerifier.create(partial.submit("adidas-US", "EG4958_550")).verifyComplete();
+    StepVerifier.withVirtualTime(() -> Mono.zip(failing.submit("adidas-US", "EG4958_550"),
+        failing.submit("adidas-US", "M20323_530")))
+        .thenAwait(Duration.ofMillis(5))
+        .expectError(IllegalStateException.class)
+        .verify();
+  }
+
+  private MicroBatcher<String, String> batcher(int maxBatchSize, Duration maxWait) {
+    return new MicroBatcher<>("cnc-dpe", meterRegistry, (site, skus) -> {
+      batches.add(Set.copyOf(skus));
+      return Mono.just(skus.stream().collect(Collectors.toMap(Function.identity(), sku -> "available-" + sku)));
+    }, maxBatchSize, maxWait);
+  }
+}
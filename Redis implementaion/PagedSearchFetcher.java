@@ -0,0 +1,51 @@
+package com.adidas.next.shippingapi.util;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fetches every page of a paginated location search, such as the SSM store or PUDO aggregator radius searches.
+ * The first page is requested alone to learn the total page count; the remaining pages are then requested
+ * concurrently, up to {@code paged-search.concurrency} at a time. Items are emitted as soon as their page arrives,
+ * so they are not in page order.
+ */
+@Slf4j
+@Component
+public class PagedSearchFetcher {
+
+  @Value("${paged-search.concurrency:4}")
+  private int concurrency;
+
+  @Value("${paged-search.max-pages:20}")
+  private int maxPages;
+
+  /**
+   * @param firstPage  number of the first page, as configured for the search API
+   * @param pageCall   requests one page by its number
+   * @param totalPages reads the total page count from a page response
+   * @param items      reads the items of a page response
+   */
+  public <P, T> Flux<T> fetchAll(int firstPage, IntFunction<Mono<P>> pageCall, ToIntFunction<P> totalPages,
+      Function<P, List<T>> items) {
+    return pageCall.apply(firstPage).flatMapMany(page -> {
+      int pageCount = totalPages.applyAsInt(page);
+      if (pageCount > maxPages) {
+        log.warn("Search returned {} pages, fetching the first {} only", pageCount, maxPages);
+        pageCount = maxPages;
+      }
+      Flux<T> remainingItems = Flux.range(firstPage + 1, Math.max(0, pageCount - 1))
+          .flatMap(pageCall::apply, concurrency)
+          .flatMapIterable(items);
+      return Flux.fromIterable(items.apply(page)).concatWith(remainingItems);
+    });
+  }
+}
@@ -0,0 +1,86 @@
+package com.adidas.next.shippingapi.util;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class PagedSearchFetcherTest {
+
+  PagedSearchFetcher pagedSearchFetcher;
+
+  @BeforeEach
+  void setUp() {
+    pagedSearchFetcher = new PagedSearchFetcher();
+    ReflectionTestUtils.setField(pagedSearchFetcher, "concurrency", 4);
+    ReflectionTestUtils.setField(pagedSearchFetcher, "maxPages", 20);
+  }
+
+  @Test
+  void testRemainingPagesAreFetchedConcurrently() {
+    StepVerifier.withVirtualTime(() -> pagedSearchFetcher.fetchAll(1, this::page, page -> 4, page -> page))
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(999))
+        .thenAwait(Duration.ofMillis(1))
+        .expectNext("store-1")
+        .expectNoEvent(Duration.ofMillis(999))
+        .thenAwait(Duration.ofMillis(1))
+        .expectNextCount(3)
+        .verifyComplete();
+  }
+
+  @Test
+  void testItemsStreamAsPagesArrive() {
+    StepVerifier.withVirtualTime(() -> pagedSearchFetcher.fetchAll(1,
+        pageNumber -> Mono.just(List.of("store-" + pageNumber)).delayElement(Duration.ofSeconds(5 - pageNumber)),
+        page -> 3, page -> page))
+        .expectSubscription()
+        .thenAwait(Duration.ofSeconds(4))
+        .expectNext("store-1")
+        .thenAwait(Duration.ofSeconds(2))
+        .expectNext("store-3")
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext("store-2")
+        .verifyComplete();
+  }
+
+  @Test
+  void testPageCountIsCapped() {
+    ReflectionTestUtils.setField(pagedSearchFetcher, "maxPages", 2);
+    AtomicInteger calls = new AtomicInteger();
+
+    StepVerifier.create(pagedSearchFetcher.fetchAll(0, pageNumber -> {
+      calls.incrementAndGet();
+      return Mono.just(List.of("store-" + pageNumber));
+    }, page -> 10, page -> page))
+        .expectNext("store-0", "store-1")
+        .verifyComplete();
+
+    Assertions.assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testSinglePageIsFetchedOnce() {
+    AtomicInteger calls = new AtomicInteger();
+
+    StepVerifier.create(pagedSearchFetcher.fetchAll(1, pageNumber -> {
+      calls.incrementAndGet();
+      return Mono.just(List.of("store-" + pageNumber));
+    }, page -> 1, page -> page))
+        .expectNext("store-1")
+        .verifyComplete();
+
+    Assertions.assertEquals(1, calls.get());
+  }
+
+  private Mono<List<String>> page(int pageNumber) {
+    return Mono.just(List.of("store-" + pageNumber)).delayElement(Duration.ofSeconds(1));
+  }
+}
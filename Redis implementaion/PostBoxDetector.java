@@ -0,0 +1,201 @@
+package com.adidas.next.shippingapi.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects PO box addresses and military states for the USPS shipping method. The configured PO box variants are
+ * compiled at startup into one Aho-Corasick automaton that scans an address line in a single pass, ignoring case
+ * and treating any run of whitespace as one space; a variant therefore only has to be configured once, in any
+ * casing. Variants with characters outside ASCII are ignored. Military states are looked up in a table indexed by
+ * the two letters of the state code. Neither check allocates.
+ */
+@Component
+public class PostBoxDetector {
+
+  private static final Pattern QUOTED = Pattern.compile("\"([^\"]*)\"");
+  private static final int ASCII = 128;
+  private static final int OTHER = 0;
+  private static final int LETTERS = 26;
+
+  private final int[] symbols = new int[ASCII];
+  private final int[][] transitions;
+  private final boolean[] accepting;
+  private final boolean[] twoLetterStates = new boolean[LETTERS * LETTERS];
+  private final Set<String> otherStates = new HashSet<>();
+
+  public PostBoxDetector(@Value("${address-lines-postbox-config.json-content}") String postBoxContent,
+      @Value("${military-states-config.json-content}") String militaryStatesContent) {
+    List<String> patterns = new ArrayList<>();
+    for (String variant : parse(postBoxContent)) {
+      String pattern = normalize(variant);
+      if (!pattern.isEmpty()) {
+        patterns.add(pattern);
+      }
+    }
+    Set<Character> alphabet = new TreeSet<>();
+    patterns.forEach(pattern -> pattern.chars().forEach(character -> alphabet.add((char) character)));
+    int symbol = 1;
+    for (char character : alphabet) {
+      if (character < ASCII) {
+        symbols[character] = symbol++;
+      }
+    }
+    List<int[]> gotoTable = new ArrayList<>();
+    List<Boolean> output = new ArrayList<>();
+    gotoTable.add(new int[symbol]);
+    output.add(false);
+    for (String pattern : patterns) {
+      int state = 0;
+      for (int i = 0; i < pattern.length(); i++) {
+        int next = symbol(pattern.charAt(i));
+        if (next == OTHER) {
+          state = -1;
+          break;
+        }
+        if (gotoTable.get(state)[next] == 0) {
+          gotoTable.add(new int[symbol]);
+          output.add(false);
+          gotoTable.get(state)[next] = gotoTable.size() - 1;
+        }
+        state = gotoTable.get(state)[next];
+      }
+      if (state > 0) {
+        output.set(state, true);
+      }
+    }
+    transitions = gotoTable.toArray(new int[0][]);
+    accepting = new boolean[transitions.length];
+    for (int state = 0; state < accepting.length; state++) {
+      accepting[state] = output.get(state);
+    }
+    buildFailureTransitions(symbol);
+    for (String state : parse(militaryStatesContent)) {
+      String code = state.trim().toUpperCase(Locale.ROOT);
+      int index = twoLetterIndex(code);
+      if (index >= 0) {
+        twoLetterStates[index] = true;
+      } else {
+        otherStates.add(code);
+      }
+    }
+  }
+
+  /**
+   * Tells whether any of the address lines contains one of the configured PO box variants.
+   */
+  public boolean containsPostBox(Collection<String> addressLines) {
+    for (String addressLine : addressLines) {
+      if (containsPostBox(addressLine)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean containsPostBox(String addressLine) {
+    if (addressLine == null) {
+      return false;
+    }
+    int state = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < addressLine.length(); i++) {
+      char character = addressLine.charAt(i);
+      if (Character.isWhitespace(character)) {
+        pendingSpace = state != 0 || pendingSpace;
+        continue;
+      }
+      if (pendingSpace) {
+        state = transitions[state][symbol(' ')];
+        pendingSpace = false;
+      }
+      state = transitions[state][symbol(Character.toLowerCase(character))];
+      if (accepting[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean isMilitaryState(String state) {
+    if (state == null) {
+      return false;
+    }
+    int index = twoLetterIndex(state);
+    return index >= 0 ? twoLetterStates[index] : otherStates.contains(state.trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Completes the goto function into a full transition table by breadth-first traversal, following failure links
+   * for missing transitions, and marks states whose failure chain reaches an accepting state as accepting.
+   */
+  private void buildFailureTransitions(int symbolCount) {
+    int[] failure = new int[transitions.length];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int next = 0; next < symbolCount; next++) {
+      if (transitions[0][next] != 0) {
+        queue.add(transitions[0][next]);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      accepting[state] |= accepting[failure[state]];
+      for (int next = 0; next < symbolCount; next++) {
+        int child = transitions[state][next];
+        if (child != 0) {
+          failure[child] = transitions[failure[state]][next];
+          queue.add(child);
+        } else {
+          transitions[state][next] = transitions[failure[state]][next];
+        }
+      }
+    }
+  }
+
+  private int symbol(char character) {
+    return character < ASCII ? symbols[character] : OTHER;
+  }
+
+  private static int twoLetterIndex(String code) {
+    if (code.length() != 2) {
+      return -1;
+    }
+    int first = Character.toUpperCase(code.charAt(0)) - 'A';
+    int second = Character.toUpperCase(code.charAt(1)) - 'A';
+    if (first < 0 || first >= LETTERS || second < 0 || second >= LETTERS) {
+      return -1;
+    }
+    return first * LETTERS + second;
+  }
+
+  private static String normalize(String variant) {
+    return variant.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Reads the quoted values of a {@code {"a","b"}} list as used by the address line and military state settings.
+   */
+  static List<String> parse(String content) {
+    List<String> values = new ArrayList<>();
+    if (content == null) {
+      return values;
+    }
+    Matcher matcher = QUOTED.matcher(content);
+    while (matcher.find()) {
+      values.add(matcher.group(1));
+    }
+    return values;
+  }
+}
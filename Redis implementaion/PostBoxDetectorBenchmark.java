@@ -0,0 +1,71 @@
+package com.adidas.next.shippingapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.adidas.next.shippingapi.util.PostBoxDetector;
+
+/**
+ * Compares checking every configured PO box variant against each address line with a single pass of the
+ * {@link PostBoxDetector} automaton, for the variants of the local configuration and a US address without a PO box
+ * (the worst case of the per-variant check). Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.adidas.next.shippingapi.benchmark.PostBoxDetectorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostBoxDetectorBenchmark {
+
+  private static final List<String> VARIANTS = List.of("PO Box", "P.O", "P. O", "P O", "P.o", "p.o", "p.O",
+      "po box", "Post Office", "PO box", "p o BOX", "p o Box", "p o", "P o", "p O", "P O BOX", "PO BOX", "POSTOFFICE",
+      "POST OFFICE", "Po Box", "post office", "postoffice", "p . O", "p . o", "P . O", "P . o", "Post office",
+      "Postbox", "Post box", "Post-box");
+
+  private PostBoxDetector detector;
+  private List<String> addressLines;
+
+  @Setup
+  public void setUp() {
+    detector = new PostBoxDetector("{\"" + String.join("\",\"", VARIANTS) + "\"}", "{\"AA\",\"AE\",\"AP\"}");
+    addressLines = List.of("1600 Pennsylvania Avenue Northwest", "Suite 2400, Building 7", "Attn: Receiving Dock");
+  }
+
+  @Benchmark
+  public boolean perVariant() {
+    for (String addressLine : addressLines) {
+      for (String variant : VARIANTS) {
+        if (addressLine.contains(variant)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Benchmark
+  public boolean automaton() {
+    return detector.containsPostBox(addressLines);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PostBoxDetectorBenchmark.class.getSimpleName())
+        .addProfiler("gc").build()).run();
+  }
+}
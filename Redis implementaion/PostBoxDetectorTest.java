@@ -0,0 +1,53 @@
+package com.adidas.next.shippingapi.util;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PostBoxDetectorTest {
+
+  private static final String POST_BOX_CONTENT = "{\"PO Box\",\"P.O\",\"P . O\",\"Post Office\",\"Postbox\","
+      + "\"Post-box\"}";
+  private static final String MILITARY_STATES_CONTENT = "{\"AA\",\"AE\",\"AP\"}";
+
+  PostBoxDetector detector = new PostBoxDetector(POST_BOX_CONTENT, MILITARY_STATES_CONTENT);
+
+  @Test
+  void testPostBoxIsDetectedIgnoringCaseAndWhitespace() {
+    Assertions.assertTrue(detector.containsPostBox("po box 1234"));
+    Assertions.assertTrue(detector.containsPostBox("P.O. 55"));
+    Assertions.assertTrue(detector.containsPostBox("p .  o 55"));
+    Assertions.assertTrue(detector.containsPostBox("c/o POST\tOFFICE"));
+    Assertions.assertTrue(detector.containsPostBox("1 Main St, POST-BOX 9"));
+    Assertions.assertFalse(detector.containsPostBox("1 Main Street"));
+    Assertions.assertFalse(detector.containsPostBox("Postal Road 4"));
+    Assertions.assertFalse(detector.containsPostBox((String) null));
+  }
+
+  @Test
+  void testOverlappingVariantsAreFound() {
+    PostBoxDetector overlapping = new PostBoxDetector("{\"box\",\"post boxes\",\"x 1\"}", MILITARY_STATES_CONTENT);
+
+    Assertions.assertTrue(overlapping.containsPostBox("post box 1"));
+    Assertions.assertTrue(overlapping.containsPostBox("BOX"));
+    Assertions.assertFalse(overlapping.containsPostBox("bo x"));
+  }
+
+  @Test
+  void testAnyAddressLineMayContainPostBox() {
+    Assertions.assertTrue(detector.containsPostBox(List.of("Jane Doe", "Postbox 12")));
+    Assertions.assertFalse(detector.containsPostBox(List.of("Jane Doe", "12 Post")));
+    Assertions.assertFalse(detector.containsPostBox(List.of("Post", "box")));
+  }
+
+  @Test
+  void testMilitaryStates() {
+    Assertions.assertTrue(detector.isMilitaryState("AE"));
+    Assertions.assertTrue(detector.isMilitaryState("ap"));
+    Assertions.assertFalse(detector.isMilitaryState("CA"));
+    Assertions.assertFalse(detector.isMilitaryState("A1"));
+    Assertions.assertFalse(detector.isMilitaryState(""));
+    Assertions.assertFalse(detector.isMilitaryState(null));
+  }
+}
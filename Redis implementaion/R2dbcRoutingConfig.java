@@ -0,0 +1,153 @@
+package com.adidas.next.shippingapi.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Routes database access between the two pools of {@code spring.r2dbc}: repositories named {@code *ReadRepository}
+ * use the reader, through {@link ReaderFallbackConnectionFactory}, and every other repository uses the writer. The
+ * writer beans are primary, so anything injecting a plain {@link DatabaseClient} writes to the primary.
+ * <p>
+ * Per-method query latency of the repositories is published by Spring Boot under
+ * {@code spring.data.repository.invocations}.
+ * <p>
+ * Both pools share the driver settings of {@code r2dbc-driver}: the number of prepared statements each connection
+ * keeps parsed, binary transfer of parameters and results, and the number of rows fetched per round trip by
+ * multi-row queries (0 fetches all rows at once).
+ */
+@Configuration
+public class R2dbcRoutingConfig {
+
+  static final String REPOSITORY_PACKAGE = "com.adidas.next.shippingapi.repository";
+  static final String READ_REPOSITORY_PATTERN = ".*ReadRepository";
+
+  @Value("${r2dbc-driver.prepared-statement-cache-queries:256}")
+  private int preparedStatementCacheQueries;
+
+  @Value("${r2dbc-driver.force-binary:false}")
+  private boolean forceBinary;
+
+  @Value("${r2dbc-driver.fetch-size:0}")
+  private int fetchSize;
+
+  @Primary
+  @Bean(destroyMethod = "dispose")
+  public MeteredConnectionFactory writerConnectionFactory(MeterRegistry meterRegistry,
+      @Value("${spring.r2dbc.writer.url}") String url,
+      @Value("${spring.r2dbc.writer.pool.initial-size}") int initialSize,
+      @Value("${spring.r2dbc.writer.pool.max-size}") int maxSize,
+      @Value("${spring.r2dbc.writer.pool.max-idle-time-minutes}") long maxIdleTime,
+      @Value("${spring.r2dbc.writer.pool.max-create-conn-time-seconds}") long maxCreateConnectionTime) {
+    return new MeteredConnectionFactory("writer",
+        pool("writer", url, initialSize, maxSize, maxIdleTime, maxCreateConnectionTime), meterRegistry);
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public MeteredConnectionFactory readerConnectionFactory(MeterRegistry meterRegistry,
+      @Value("${spring.r2dbc.reader.url}") String url,
+      @Value("${spring.r2dbc.reader.pool.initial-size}") int initialSize,
+      @Value("${spring.r2dbc.reader.pool.max-size}") int maxSize,
+      @Value("${spring.r2dbc.reader.pool.max-idle-time-minutes}") long maxIdleTime,
+      @Value("${spring.r2dbc.reader.pool.max-create-conn-time-seconds}") long maxCreateConnectionTime) {
+    return new MeteredConnectionFactory("reader",
+        pool("reader", url, initialSize, maxSize, maxIdleTime, maxCreateConnectionTime), meterRegistry);
+  }
+
+  @Bean
+  public ReaderFallbackConnectionFactory readerFallbackConnectionFactory(
+      @Qualifier("readerConnectionFactory") MeteredConnectionFactory reader,
+      @Qualifier("writerConnectionFactory") MeteredConnectionFactory writer, MeterRegistry meterRegistry,
+      @Value("${r2dbc-routing.reader-backoff-seconds:30}") long readerBackoff,
+      @Value("${r2dbc-routing.max-replica-lag-millis:0}") long maxReplicaLag,
+      @Value("${r2dbc-routing.replica-lag-probe-seconds:10}") long replicaLagProbeInterval) {
+    ReaderFallbackConnectionFactory connectionFactory = new ReaderFallbackConnectionFactory(reader, writer,
+        meterRegistry, Duration.ofSeconds(readerBackoff), maxReplicaLag);
+    connectionFactory.scheduleReplicaLagProbe(Duration.ofSeconds(replicaLagProbeInterval));
+    return connectionFactory;
+  }
+
+  @Primary
+  @Bean
+  public DatabaseClient writerDatabaseClient(@Qualifier("writerConnectionFactory") ConnectionFactory connectionFactory) {
+    return DatabaseClient.create(connectionFactory);
+  }
+
+  @Bean
+  public DatabaseClient readerDatabaseClient(
+      @Qualifier("readerFallbackConnectionFactory") ConnectionFactory connectionFactory) {
+    return DatabaseClient.create(connectionFactory);
+  }
+
+  @Primary
+  @Bean
+  public R2dbcEntityTemplate writerR2dbcEntityTemplate(
+      @Qualifier("writerDatabaseClient") DatabaseClient databaseClient, R2dbcConverter r2dbcConverter) {
+    return new R2dbcEntityTemplate(databaseClient, DialectResolver.getDialect(databaseClient.getConnectionFactory()),
+        r2dbcConverter);
+  }
+
+  @Bean
+  public R2dbcEntityTemplate readerR2dbcEntityTemplate(
+      @Qualifier("readerDatabaseClient") DatabaseClient databaseClient, R2dbcConverter r2dbcConverter) {
+    return new R2dbcEntityTemplate(databaseClient, DialectResolver.getDialect(databaseClient.getConnectionFactory()),
+        r2dbcConverter);
+  }
+
+  /**
+   * Creates a driver connection factory for the URL with the given statement cache, binary transfer and fetch size
+   * settings.
+   */
+  public static ConnectionFactory connectionFactory(String url, int preparedStatementCacheQueries,
+      boolean forceBinary, int fetchSize) {
+    return ConnectionFactories.get(ConnectionFactoryOptions.builder()
+        .from(ConnectionFactoryOptions.parse(url))
+        .option(PostgresqlConnectionFactoryProvider.PREPARED_STATEMENT_CACHE_QUERIES, preparedStatementCacheQueries)
+        .option(PostgresqlConnectionFactoryProvider.FORCE_BINARY, forceBinary)
+        .option(PostgresqlConnectionFactoryProvider.FETCH_SIZE, fetchSize)
+        .build());
+  }
+
+  private ConnectionPool pool(String name, String url, int initialSize, int maxSize, long maxIdleTime,
+      long maxCreateConnectionTime) {
+    return new ConnectionPool(ConnectionPoolConfiguration.builder(
+        connectionFactory(url, preparedStatementCacheQueries, forceBinary, fetchSize))
+        .name(name)
+        .initialSize(initialSize)
+        .maxSize(maxSize)
+        .maxIdleTime(Duration.ofMinutes(maxIdleTime))
+        .maxCreateConnectionTime(Duration.ofSeconds(maxCreateConnectionTime))
+        .build());
+  }
+
+  @Configuration
+  @EnableR2dbcRepositories(basePackages = REPOSITORY_PACKAGE, entityOperationsRef = "readerR2dbcEntityTemplate",
+      includeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = READ_REPOSITORY_PATTERN))
+  static class ReadRepositories {
+  }
+
+  @Configuration
+  @EnableR2dbcRepositories(basePackages = REPOSITORY_PACKAGE, entityOperationsRef = "writerR2dbcEntityTemplate",
+      excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = READ_REPOSITORY_PATTERN))
+  static class WriteRepositories {
+  }
+}
@@ -0,0 +1,170 @@
+package com.adidas.next.shippingapi.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Connection factory of the read repositories. Connections come from the reader pool unless the reader cannot
+ * serve them well, in which case the read goes to the writer:
+ * <ul>
+ * <li>the reader pool is saturated while the writer pool still has room;</li>
+ * <li>connecting to the reader failed recently, for the configured backoff;</li>
+ * <li>the replica lags behind the primary by more than the configured maximum, as last measured by the probe.</li>
+ * </ul>
+ * A reader acquisition that times out or fails otherwise also goes to the writer, but only for that read: a busy
+ * reader pool is not a broken replica. Every acquisition is counted under {@code r2dbc.reads} with the pool that
+ * served it and the reason.
+ * <p>
+ * The lag probe reports no lag when the replica has replayed all the WAL it received, so an idle primary does not
+ * count as lagging; otherwise the lag is the age of the last replayed transaction.
+ */
+@Slf4j
+public class ReaderFallbackConnectionFactory implements ConnectionFactory, DisposableBean {
+
+  static final String READS_METRIC = "r2dbc.reads";
+  static final String REPLICA_LAG_METRIC = "r2dbc.replica.lag";
+  static final String REPLICA_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+      + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+      + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END::bigint";
+
+  private final MeteredConnectionFactory reader;
+  private final MeteredConnectionFactory writer;
+  private final MeterRegistry meterRegistry;
+  private final Duration unhealthyBackoff;
+  private final long maxReplicaLag;
+  private final AtomicLong replicaLag = new AtomicLong();
+  private volatile long unhealthyUntil;
+  private volatile Disposable replicaLagProbe;
+
+  /**
+   * @param maxReplicaLag lag in milliseconds above which reads go to the writer; 0 ignores the lag
+   */
+  public ReaderFallbackConnectionFactory(MeteredConnectionFactory reader, MeteredConnectionFactory writer,
+      MeterRegistry meterRegistry, Duration unhealthyBackoff, long maxReplicaLag) {
+    this.reader = reader;
+    this.writer = writer;
+    this.meterRegistry = meterRegistry;
+    this.unhealthyBackoff = unhealthyBackoff;
+    this.maxReplicaLag = maxReplicaLag;
+    Gauge.builder(REPLICA_LAG_METRIC, replicaLag, AtomicLong::get)
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<Connection> create() {
+    return Mono.defer(() -> {
+      String fallbackReason = fallbackReason();
+      if (fallbackReason != null) {
+        return fromWriter(fallbackReason);
+      }
+      return reader.create()
+          .doOnSuccess(connection -> count(reader, "default"))
+          .onErrorResume(error -> {
+            if (isConnectionError(error)) {
+              log.warn("Could not connect to the reader, reading from the writer for {}", unhealthyBackoff, error);
+              unhealthyUntil = System.currentTimeMillis() + unhealthyBackoff.toMillis();
+              return fromWriter("reader_error");
+            }
+            log.warn("Could not acquire a reader connection, reading from the writer", error);
+            return fromWriter(isTimeout(error) ? "reader_timeout" : "reader_failure");
+          });
+    });
+  }
+
+  @Override
+  public ConnectionFactoryMetadata getMetadata() {
+    return reader.getMetadata();
+  }
+
+  /**
+   * Measures the replica lag at a fixed interval. Does nothing when no maximum lag is configured.
+   */
+  public void scheduleReplicaLagProbe(Duration interval) {
+    if (maxReplicaLag <= 0) {
+      return;
+    }
+    replicaLagProbe = Flux.interval(interval)
+        .onBackpressureDrop()
+        .concatMap(tick -> probeReplicaLag()
+            .onErrorResume(error -> {
+              log.warn("Replica lag probe failed", error);
+              return Mono.empty();
+            }))
+        .subscribe();
+  }
+
+  Mono<Long> probeReplicaLag() {
+    return Mono.usingWhen(reader.create(),
+        connection -> Mono.from(connection.createStatement(REPLICA_LAG_QUERY).execute())
+            .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class)))),
+        Connection::close)
+        .doOnNext(replicaLag::set);
+  }
+
+  @Override
+  public void destroy() {
+    if (replicaLagProbe != null) {
+      replicaLagProbe.dispose();
+    }
+  }
+
+  private String fallbackReason() {
+    if (System.currentTimeMillis() < unhealthyUntil) {
+      return "reader_unhealthy";
+    }
+    if (maxReplicaLag > 0 && replicaLag.get() > maxReplicaLag) {
+      return "replica_lag";
+    }
+    if (reader.isSaturated() && !writer.isSaturated()) {
+      return "reader_saturated";
+    }
+    return null;
+  }
+
+  private static boolean isConnectionError(Throwable error) {
+    return hasCause(error, R2dbcNonTransientResourceException.class, R2dbcTransientResourceException.class,
+        IOException.class);
+  }
+
+  private static boolean isTimeout(Throwable error) {
+    return hasCause(error, TimeoutException.class, R2dbcTimeoutException.class);
+  }
+
+  @SafeVarargs
+  private static boolean hasCause(Throwable error, Class<? extends Throwable>... types) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      for (Class<? extends Throwable> type : types) {
+        if (type.isInstance(cause)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Mono<Connection> fromWriter(String reason) {
+    return writer.create().doOnSuccess(connection -> count(writer, reason));
+  }
+
+  private void count(MeteredConnectionFactory pool, String reason) {
+    meterRegistry.counter(READS_METRIC, "pool", pool.getName(), "reason", reason).increment();
+  }
+}
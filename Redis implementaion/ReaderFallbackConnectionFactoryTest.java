@@ -0,0 +1,107 @@
+package com.adidas.next.shippingapi.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReaderFallbackConnectionFactoryTest {
+
+  @Mock
+  MeteredConnectionFactory reader;
+
+  @Mock
+  MeteredConnectionFactory writer;
+
+  @Mock
+  Connection readerConnection;
+
+  @Mock
+  Connection writerConnection;
+
+  SimpleMeterRegistry meterRegistry;
+
+  ReaderFallbackConnectionFactory connectionFactory;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    Mockito.lenient().when(reader.getName()).thenReturn("reader");
+    Mockito.lenient().when(writer.getName()).thenReturn("writer");
+    connectionFactory = new ReaderFallbackConnectionFactory(reader, writer, meterRegistry, Duration.ofSeconds(30), 0);
+  }
+
+  @Test
+  void testReadsUseReaderPool() {
+    Mockito.when(reader.create()).thenReturn(Mono.just(readerConnection));
+
+    StepVerifier.create(connectionFactory.create()).expectNext(readerConnection).verifyComplete();
+
+    Assertions.assertEquals(1, reads("reader", "default"));
+    Mockito.verify(writer, Mockito.never()).create();
+  }
+
+  @Test
+  void testSaturatedReaderFallsBackToWriter() {
+    Mockito.when(reader.isSaturated()).thenReturn(true);
+    Mockito.when(writer.create()).thenReturn(Mono.just(writerConnection));
+
+    StepVerifier.create(connectionFactory.create()).expectNext(writerConnection).verifyComplete();
+
+    Assertions.assertEquals(1, reads("writer", "reader_saturated"));
+    Mockito.verify(reader, Mockito.never()).create();
+  }
+
+  @Test
+  void testReaderStaysOnReaderWhenBothPoolsAreSaturated() {
+    Mockito.when(reader.isSaturated()).thenReturn(true);
+    Mockito.when(writer.isSaturated()).thenReturn(true);
+    Mockito.when(reader.create()).thenReturn(Mono.just(readerConnection));
+
+    StepVerifier.create(connectionFactory.create()).expectNext(readerConnection).verifyComplete();
+  }
+
+  @Test
+  void testFailingReaderIsAvoidedDuringBackoff() {
+    Mockito.when(reader.create()).thenReturn(Mono.error(new R2dbcNonTransientResourceException("connection refused")));
+    Mockito.when(writer.create()).thenReturn(Mono.just(writerConnection));
+
+    StepVerifier.create(connectionFactory.create()).expectNext(writerConnection).verifyComplete();
+    StepVerifier.create(connectionFactory.create()).expectNext(writerConnection).verifyComplete();
+
+    Assertions.assertEquals(1, reads("writer", "reader_error"));
+    Assertions.assertEquals(1, reads("writer", "reader_unhealthy"));
+    Mockito.verify(reader, Mockito.times(1)).create();
+  }
+
+  @Test
+  void testReaderAcquireTimeoutDoesNotStartBackoff() {
+    Mockito.when(reader.create()).thenReturn(Mono.error(new TimeoutException("no connection within 5s")),
+        Mono.just(readerConnection));
+    Mockito.when(writer.create()).thenReturn(Mono.just(writerConnection));
+
+    StepVerifier.create(connectionFactory.create()).expectNext(writerConnection).verifyComplete();
+    StepVerifier.create(connectionFactory.create()).expectNext(readerConnection).verifyComplete();
+
+    Assertions.assertEquals(1, reads("writer", "reader_timeout"));
+    Assertions.assertEquals(1, reads("reader", "default"));
+  }
+
+  private double reads(String pool, String reason) {
+    return meterRegistry.get(ReaderFallbackConnectionFactory.READS_METRIC).tags("pool", pool, "reason", reason)
+        .counter().count();
+  }
+}
@@ -0,0 +1,379 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.cache.CacheValueCodec.CachedValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Two-tier cache for reference data: a bounded in-process L1 holding already deserialized values in front of
+ * Redis, which stays the shared L2 across replicas. Concurrent misses for the same key share a single Redis lookup,
+ * database load and Redis write.
+ * <p>
+ * With stale-while-revalidate enabled every Redis entry carries a soft expiry. Past it the stale value is still
+ * served while one background refresh reloads it; the Redis TTL remains the hard bound on staleness.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+  static final String GETS_METRIC = "reference.cache.gets";
+  static final String EVICTIONS_METRIC = "reference.cache.evictions";
+  static final String SIZE_METRIC = "reference.cache.size";
+  static final String TIER_L1 = "l1";
+  static final String TIER_L2 = "l2";
+  static final String REFRESHES_METRIC = "reference.cache.refreshes";
+  /**
+   * Namespaces of the single-flight keys of the batch lookups, which yield maps; a batch of one key must not join
+   * the flight of a single-key lookup.
+   */
+  private static final String MANY_FLIGHT = "many";
+  private static final String ALL_FLIGHT = "all";
+
+  private final ReactiveRedisOperations<String, byte[]> redisOperations;
+  private final MeterRegistry meterRegistry;
+  private final CacheValueCodec cacheValueCodec;
+  private final Map<CacheRegion, Cache<String, Object>> localCaches = new EnumMap<>(CacheRegion.class);
+  private final SingleFlight singleFlight = new SingleFlight();
+
+  @Value("${stale-while-revalidate.enabled:false}")
+  private boolean staleWhileRevalidate;
+
+  @Value("${stale-while-revalidate.soft-expiry-seconds:240}")
+  private long softExpiryTime;
+
+  public ReferenceDataCache(ReactiveRedisOperations<String, byte[]> redisOperations, MeterRegistry meterRegistry,
+      CacheValueCodec cacheValueCodec,
+      @Value("${local-cache.max-size:1000}") long localCacheMaxSize,
+      @Value("${local-cache.expiry-seconds:60}") long localCacheExpiryTime) {
+    this.redisOperations = redisOperations;
+    this.meterRegistry = meterRegistry;
+    this.cacheValueCodec = cacheValueCodec;
+    for (CacheRegion region : CacheRegion.values()) {
+      Cache<String, Object> localCache = Caffeine.newBuilder()
+          .maximumSize(localCacheMaxSize)
+          .expireAfterWrite(Duration.ofSeconds(localCacheExpiryTime))
+          .removalListener((String key, Object value, RemovalCause cause) -> {
+            if (cause.wasEvicted()) {
+              meterRegistry.counter(EVICTIONS_METRIC, "cache", region.getPrefix(), "tier", TIER_L1,
+                  "cause", cause.name().toLowerCase()).increment();
+            }
+          })
+          .build();
+      Gauge.builder(SIZE_METRIC, localCache, Cache::estimatedSize)
+          .tags("cache", region.getPrefix(), "tier", TIER_L1)
+          .register(meterRegistry);
+      localCaches.put(region, localCache);
+    }
+  }
+
+  /**
+   * Looks the key up in the local cache, then in Redis, and finally falls back to the loader. Values found in
+   * Redis or loaded from the database are kept in the local cache; loaded values are written back to Redis.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Mono<T> get(CacheRegion region, String key, Duration ttl, Class<T> type, Supplier<Mono<T>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    return Mono.defer(() -> {
+      T localValue = (T) localCache.getIfPresent(key);
+      if (localValue != null) {
+        counter(region, TIER_L1, "hit").increment();
+        return Mono.just(localValue);
+      }
+      counter(region, TIER_L1, "miss").increment();
+      return singleFlight.execute(key, () -> getRemote(region, key, ttl, type, loader));
+    });
+  }
+
+  /**
+   * Hash variant of {@link #get}: the requested fields of the Redis hash are read in one round trip and only the
+   * fields missing from both tiers are handed to the loader, in a single call. Fields the loader does not return are
+   * cached as absent so that unsupported values do not reach the database on every request.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Mono<Map<String, T>> getAll(CacheRegion region, String key, Collection<String> fields, Duration ttl,
+      Class<T> type, Function<List<String>, Mono<Map<String, T>>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    return Mono.defer(() -> {
+      Map<String, T> values = new HashMap<>();
+      List<String> missingFields = new ArrayList<>();
+      Set<String> requestedFields = new TreeSet<>(fields);
+      for (String field : requestedFields) {
+        Optional<T> localValue = (Optional<T>) localCache.getIfPresent(fieldKey(key, field));
+        if (localValue == null) {
+          missingFields.add(field);
+        } else {
+          localValue.ifPresent(value -> values.put(field, value));
+        }
+      }
+      counter(region, TIER_L1, "hit").increment((double) requestedFields.size() - missingFields.size());
+      counter(region, TIER_L1, "miss").increment(missingFields.size());
+      if (missingFields.isEmpty()) {
+        return Mono.just(values);
+      }
+      return singleFlight.execute(fieldKey(ALL_FLIGHT, fieldKey(key, String.join(",", missingFields))),
+          () -> getRemoteFields(region, key, missingFields, ttl, type, loader))
+          .map(loaded -> {
+            values.putAll(loaded);
+            return values;
+          });
+    });
+  }
+
+  /**
+   * Multi-key variant of {@link #get}: keys missing from the local cache are read with a single MGET and the keys
+   * missing from Redis are handed to the loader in one call.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Mono<Map<String, T>> getMany(CacheRegion region, Collection<String> keys, Duration ttl,
+      Class<T> type, Function<List<String>, Mono<Map<String, T>>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    return Mono.defer(() -> {
+      Map<String, T> values = new HashMap<>();
+      List<String> missingKeys = new ArrayList<>();
+      Set<String> requestedKeys = new TreeSet<>(keys);
+      for (String key : requestedKeys) {
+        T localValue = (T) localCache.getIfPresent(key);
+        if (localValue == null) {
+          missingKeys.add(key);
+        } else {
+          values.put(key, localValue);
+        }
+      }
+      counter(region, TIER_L1, "hit").increment((double) requestedKeys.size() - missingKeys.size());
+      counter(region, TIER_L1, "miss").increment(missingKeys.size());
+      if (missingKeys.isEmpty()) {
+        return Mono.just(values);
+      }
+      return singleFlight.execute(fieldKey(MANY_FLIGHT, String.join(",", missingKeys)),
+          () -> getRemoteMany(region, missingKeys, ttl, type, loader))
+          .map(loaded -> {
+            values.putAll(loaded);
+            return values;
+          });
+    });
+  }
+
+  /**
+   * Drops the in-process copies of a key, including the per-field entries kept for a hash key. Redis is left
+   * untouched; see {@link CacheInvalidationBus} for cluster-wide invalidation.
+   */
+  public void evictLocal(CacheRegion region, String key) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    String fieldPrefix = fieldKey(key, "");
+    localCache.invalidate(key);
+    localCache.asMap().keySet().removeIf(localKey -> localKey.startsWith(fieldPrefix));
+  }
+
+  public void evictAllLocal() {
+    localCaches.values().forEach(Cache::invalidateAll);
+  }
+
+  private <T> Mono<T> getRemote(CacheRegion region, String key, Duration ttl, Class<T> type, Supplier<Mono<T>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    return redisOperations.opsForValue().get(key)
+        .map(cacheValueCodec::decode)
+        .filter(cachedValue -> !cachedValue.isExpired(System.currentTimeMillis()))
+        .map(cachedValue -> {
+          T value = cacheValueCodec.read(cachedValue, type);
+          if (cachedValue.isStale(System.currentTimeMillis())) {
+            counter(region, TIER_L2, "stale").increment();
+            refresh(region, key, () -> load(key, ttl, loader)
+                .doOnNext(refreshed -> localCache.put(key, refreshed)));
+          } else {
+            log.info("Get cached value for key : {}", key);
+            counter(region, TIER_L2, "hit").increment();
+            localCache.put(key, value);
+          }
+          return value;
+        }).switchIfEmpty(Mono.defer(() -> {
+          counter(region, TIER_L2, "miss").increment();
+          return load(key, ttl, loader).doOnNext(loaded -> localCache.put(key, loaded));
+        }));
+  }
+
+  private <T> Mono<T> load(String key, Duration ttl, Supplier<Mono<T>> loader) {
+    return loader.get().flatMap(loaded -> redisOperations.opsForValue()
+        .set(key, encode(loaded, ttl), ttl)
+        .then(Mono.just(loaded)));
+  }
+
+  private <T> Mono<Map<String, T>> getRemoteMany(CacheRegion region, List<String> keys, Duration ttl,
+      Class<T> type, Function<List<String>, Mono<Map<String, T>>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    return redisOperations.opsForValue().multiGet(keys).flatMap(cachedValues -> {
+      long now = System.currentTimeMillis();
+      Map<String, T> values = new HashMap<>();
+      List<String> staleKeys = new ArrayList<>();
+      List<String> missingKeys = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        String key = keys.get(i);
+        CachedValue cachedValue = cachedValues.get(i) == null ? null : cacheValueCodec.decode(cachedValues.get(i));
+        if (cachedValue == null || cachedValue.isExpired(now)) {
+          missingKeys.add(key);
+          continue;
+        }
+        T value = cacheValueCodec.read(cachedValue, type);
+        values.put(key, value);
+        if (cachedValue.isStale(now)) {
+          staleKeys.add(key);
+        } else {
+          localCache.put(key, value);
+        }
+      }
+      counter(region, TIER_L2, "hit").increment((double) keys.size() - missingKeys.size() - staleKeys.size());
+      counter(region, TIER_L2, "stale").increment(staleKeys.size());
+      counter(region, TIER_L2, "miss").increment(missingKeys.size());
+      if (!staleKeys.isEmpty()) {
+        refresh(region, fieldKey(MANY_FLIGHT, String.join(",", staleKeys)),
+            () -> loadMany(staleKeys, ttl, loader).doOnNext(localCache::putAll));
+      }
+      if (missingKeys.isEmpty()) {
+        return Mono.just(values);
+      }
+      return loadMany(missingKeys, ttl, loader).map(loaded -> {
+        localCache.putAll(loaded);
+        values.putAll(loaded);
+        return values;
+      });
+    });
+  }
+
+  private <T> Mono<Map<String, T>> loadMany(List<String> keys, Duration ttl, Function<List<String>, Mono<Map<String, T>>> loader) {
+    return loader.apply(keys).defaultIfEmpty(Map.of()).flatMap(loaded -> Flux.fromIterable(loaded.entrySet())
+        .flatMap(entry -> redisOperations.opsForValue()
+            .set(entry.getKey(), encode(entry.getValue(), ttl), ttl))
+        .then(Mono.just(loaded)));
+  }
+
+  private <T> Mono<Map<String, T>> getRemoteFields(CacheRegion region, String key, List<String> fields,
+      Duration ttl, Class<T> type, Function<List<String>, Mono<Map<String, T>>> loader) {
+    Cache<String, Object> localCache = localCaches.get(region);
+    ReactiveHashOperations<String, String, byte[]> hashOperations = redisOperations.opsForHash();
+    return hashOperations.multiGet(key, fields).flatMap(cachedValues -> {
+      long now = System.currentTimeMillis();
+      Map<String, T> values = new HashMap<>();
+      List<String> freshFields = new ArrayList<>();
+      List<String> staleFields = new ArrayList<>();
+      List<String> missingFields = new ArrayList<>();
+      for (int i = 0; i < fields.size(); i++) {
+        String field = fields.get(i);
+        CachedValue cachedValue = cachedValues.get(i) == null ? null : cacheValueCodec.decode(cachedValues.get(i));
+        if (cachedValue == null || cachedValue.isExpired(now)) {
+          missingFields.add(field);
+          continue;
+        }
+        (cachedValue.isStale(now) ? staleFields : freshFields).add(field);
+        if (!cachedValue.isAbsent()) {
+          values.put(field, cacheValueCodec.read(cachedValue, type));
+        }
+      }
+      counter(region, TIER_L2, "hit").increment(freshFields.size());
+      counter(region, TIER_L2, "stale").increment(staleFields.size());
+      counter(region, TIER_L2, "miss").increment(missingFields.size());
+      putLocalFields(localCache, key, freshFields, values);
+      if (!staleFields.isEmpty()) {
+        refresh(region, fieldKey(ALL_FLIGHT, fieldKey(key, String.join(",", staleFields))),
+            () -> loadFields(key, staleFields, ttl, loader)
+                .doOnNext(loaded -> putLocalFields(localCache, key, staleFields, loaded)));
+      }
+      if (missingFields.isEmpty()) {
+        return Mono.just(values);
+      }
+      return loadFields(key, missingFields, ttl, loader).map(loaded -> {
+        putLocalFields(localCache, key, missingFields, loaded);
+        values.putAll(loaded);
+        return values;
+      });
+    });
+  }
+
+  private <T> Mono<Map<String, T>> loadFields(String key, List<String> fields, Duration ttl,
+      Function<List<String>, Mono<Map<String, T>>> loader) {
+    ReactiveHashOperations<String, String, byte[]> hashOperations = redisOperations.opsForHash();
+    return loader.apply(fields).defaultIfEmpty(Map.of()).flatMap(loaded -> {
+      Map<String, byte[]> encodedValues = new HashMap<>();
+      fields.forEach(field -> encodedValues.put(field, encodeField(loaded.get(field), ttl)));
+      return hashOperations.putAll(key, encodedValues)
+          .then(redisOperations.expire(key, ttl))
+          .then(Mono.just(loaded));
+    });
+  }
+
+  private <T> void putLocalFields(Cache<String, Object> localCache, String key, List<String> fields,
+      Map<String, T> values) {
+    fields.forEach(field -> localCache.put(fieldKey(key, field), Optional.ofNullable(values.get(field))));
+  }
+
+  private <T> void refresh(CacheRegion region, String refreshKey, Supplier<Mono<T>> refresher) {
+    singleFlight.execute(fieldKey("refresh", refreshKey), refresher)
+        .doOnSuccess(refreshed -> refreshCounter(region, "success").increment())
+        .onErrorResume(error -> {
+          refreshCounter(region, "failure").increment();
+          log.warn("Background refresh failed for cache key : {}", refreshKey, error);
+          return Mono.empty();
+        })
+        .subscribe();
+  }
+
+  /**
+   * The soft expiry is capped at four fifths of the TTL, the ratio of the 240 s default to the usual 300 s TTL, so
+   * that regions with a shorter TTL still go stale and get refreshed before their hard expiry.
+   */
+  private byte[] encode(Object value, Duration ttl) {
+    if (!staleWhileRevalidate) {
+      return cacheValueCodec.encode(value, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+    long now = System.currentTimeMillis();
+    long softExpiry = Math.min(Duration.ofSeconds(softExpiryTime).toMillis(), ttl.toMillis() * 4 / 5);
+    return cacheValueCodec.encode(value, now + softExpiry, now + ttl.toMillis());
+  }
+
+  /**
+   * Hash fields always carry their hard expiry. HSET and EXPIRE are separate commands, so a hash whose EXPIRE was
+   * lost would otherwise keep its fields forever; getRemoteFields treats expired fields as missing either way.
+   */
+  private byte[] encodeField(Object value, Duration ttl) {
+    if (staleWhileRevalidate) {
+      return encode(value, ttl);
+    }
+    return cacheValueCodec.encode(value, Long.MAX_VALUE, System.currentTimeMillis() + ttl.toMillis());
+  }
+
+  private static String fieldKey(String key, String field) {
+    return String.join("-", key, field);
+  }
+
+  private Counter counter(CacheRegion region, String tier, String result) {
+    return meterRegistry.counter(GETS_METRIC, "cache", region.getPrefix(), "tier", tier, "result", result);
+  }
+
+  private Counter refreshCounter(CacheRegion region, String result) {
+    return meterRegistry.counter(REFRESHES_METRIC, "cache", region.getPrefix(), "result", result);
+  }
+}
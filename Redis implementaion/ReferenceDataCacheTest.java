@@ -0,0 +1,284 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.util.JsonObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+  private static final String CACHE_KEY = CacheRegion.SITE_ID.key("adidas-US");
+  private static final Duration TTL = Duration.ofSeconds(300);
+
+  @Mock
+  ReactiveRedisOperations<String, byte[]> redisOperations;
+
+  @Mock
+  ReactiveValueOperations<String, byte[]> reactiveValueOperations;
+
+  @Mock
+  ReactiveHashOperations<String, String, byte[]> reactiveHashOperations;
+
+  SimpleMeterRegistry meterRegistry;
+
+  CacheValueCodec cacheValueCodec;
+
+  ReferenceDataCache referenceDataCache;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cacheValueCodec = new CacheValueCodec(new JsonObjectMapper(new ObjectMapper()), new Jackson2ObjectMapperBuilder());
+    referenceDataCache = new ReferenceDataCache(redisOperations, meterRegistry, cacheValueCodec, 100, 60);
+    Mockito.lenient().when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+    Mockito.lenient().when(redisOperations.<String, byte[]>opsForHash()).thenReturn(reactiveHashOperations);
+  }
+
+  @Test
+  void testLoadsFromDatabaseOnMissAndKeepsLocalCopy() {
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(CACHE_KEY), AdditionalMatchers.aryEq(json("adidas-US")),
+        Mockito.eq(TTL))).thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("adidas-US"))).expectNext("adidas-US").verifyComplete();
+    StepVerifier.create(get(() -> Mono.error(new IllegalStateException("unexpected load"))))
+        .expectNext("adidas-US").verifyComplete();
+
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).get(CACHE_KEY);
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(TTL));
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L1, "hit"));
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L1, "miss"));
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L2, "miss"));
+  }
+
+  @Test
+  void testRedisHitIsDecodedOnce() {
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.just(json("adidas-us")));
+
+    StepVerifier.create(get(Mono::empty)).expectNext("adidas-us").verifyComplete();
+    StepVerifier.create(get(Mono::empty)).expectNext("adidas-us").verifyComplete();
+
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).get(CACHE_KEY);
+    Mockito.verify(reactiveValueOperations, Mockito.never()).set(Mockito.any(), Mockito.any(), Mockito.any());
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L2, "hit"));
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L1, "hit"));
+  }
+
+  @Test
+  void testEmptyLoadIsNotCached() {
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+
+    StepVerifier.create(get(Mono::empty)).verifyComplete();
+
+    Mockito.verify(reactiveValueOperations, Mockito.never()).set(Mockito.any(), Mockito.any(), Mockito.any());
+    Assertions.assertEquals(0, meterRegistry.get(ReferenceDataCache.SIZE_METRIC).tags("cache", "siteId").gauge().value());
+  }
+
+  @Test
+  void testConcurrentMissesShareOneLoad() {
+    AtomicInteger loads = new AtomicInteger();
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(TTL)))
+        .thenReturn(Mono.just(true));
+    Supplier<Mono<String>> loader = () -> Mono.delay(Duration.ofMillis(100))
+        .map(tick -> "adidas-US")
+        .doOnSubscribe(subscription -> loads.incrementAndGet());
+
+    StepVerifier.create(Mono.zip(get(loader), get(loader), get(loader)))
+        .expectNextMatches(results -> "adidas-US".equals(results.getT1()) && "adidas-US".equals(results.getT3()))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, loads.get());
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).get(CACHE_KEY);
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(TTL));
+  }
+
+  @Test
+  void testStaleValueIsServedAndRefreshedInBackground() {
+    ReflectionTestUtils.setField(referenceDataCache, "staleWhileRevalidate", true);
+    byte[] staleValue = cacheValueCodec.encode("adidas-us", 0, Long.MAX_VALUE);
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.just(staleValue));
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(TTL)))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("adidas-US"))).expectNext("adidas-us").verifyComplete();
+    StepVerifier.create(get(Mono::empty)).expectNext("adidas-US").verifyComplete();
+
+    Mockito.verify(reactiveValueOperations, Mockito.times(1)).set(Mockito.eq(CACHE_KEY),
+        Mockito.argThat(value -> !cacheValueCodec.decode(value).isStale(System.currentTimeMillis())), Mockito.eq(TTL));
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L2, "stale"));
+    Assertions.assertEquals(1, meterRegistry.get(ReferenceDataCache.REFRESHES_METRIC).tags("result", "success")
+        .counter().count());
+  }
+
+  @Test
+  void testShortTtlRegionGoesStaleBeforeHardExpiry() {
+    ReflectionTestUtils.setField(referenceDataCache, "staleWhileRevalidate", true);
+    ReflectionTestUtils.setField(referenceDataCache, "softExpiryTime", 240L);
+    Duration shortTtl = Duration.ofSeconds(60);
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(shortTtl)))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(referenceDataCache.get(CacheRegion.SITE_ID, CACHE_KEY, shortTtl, String.class,
+        () -> Mono.just("adidas-US"))).expectNext("adidas-US").verifyComplete();
+
+    long now = System.currentTimeMillis();
+    Mockito.verify(reactiveValueOperations).set(Mockito.eq(CACHE_KEY), Mockito.argThat(value -> {
+      CacheValueCodec.CachedValue cachedValue = cacheValueCodec.decode(value);
+      long staleAt = now + Duration.ofSeconds(50).toMillis();
+      return cachedValue.isStale(staleAt) && !cachedValue.isExpired(staleAt);
+    }), Mockito.eq(shortTtl));
+  }
+
+  @Test
+  void testValueBeyondHardExpiryIsReloaded() {
+    ReflectionTestUtils.setField(referenceDataCache, "staleWhileRevalidate", true);
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY))
+        .thenReturn(Mono.just(cacheValueCodec.encode("adidas-us", 0, 0)));
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(CACHE_KEY), Mockito.any(), Mockito.eq(TTL)))
+        .thenReturn(Mono.just(true));
+
+    StepVerifier.create(get(() -> Mono.just("adidas-US"))).expectNext("adidas-US").verifyComplete();
+
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L2, "miss"));
+  }
+
+  @Test
+  void testGetAllLoadsOnlyMissingFieldsAndCachesAbsence() {
+    String hashKey = CacheRegion.FULFILLMENT_OPTIONS.key("adidas-US");
+    Mockito.when(reactiveHashOperations.multiGet(hashKey, List.of("ClickAndCollect", "HomeDelivery", "PUDO")))
+        .thenReturn(Mono.just(Arrays.asList(json("hd"), null, null)));
+    Mockito.when(reactiveHashOperations.putAll(Mockito.eq(hashKey), Mockito.argThat(values -> values.size() == 2
+        && cacheValueCodec.decode(values.get("PUDO")).isAbsent()
+        && !cacheValueCodec.decode(values.get("HomeDelivery")).isAbsent()
+        && cacheValueCodec.decode(values.get("HomeDelivery"))
+            .isExpired(System.currentTimeMillis() + TTL.toMillis() + 1))))
+        .thenReturn(Mono.just(true));
+    Mockito.when(redisOperations.expire(hashKey, TTL)).thenReturn(Mono.just(true));
+    AtomicInteger loads = new AtomicInteger();
+    Function<List<String>, Mono<Map<String, String>>> loader = missingFields -> {
+      loads.incrementAndGet();
+      Assertions.assertEquals(List.of("HomeDelivery", "PUDO"), missingFields);
+      return Mono.just(Map.of("HomeDelivery", "cnc"));
+    };
+
+    StepVerifier.create(getAll(hashKey, List.of("PUDO", "HomeDelivery", "ClickAndCollect"), loader))
+        .expectNext(Map.of("ClickAndCollect", "hd", "HomeDelivery", "cnc"))
+        .verifyComplete();
+    StepVerifier.create(getAll(hashKey, List.of("HomeDelivery", "PUDO"), loader))
+        .expectNext(Map.of("HomeDelivery", "cnc"))
+        .verifyComplete();
+
+    Assertions.assertEquals(1, loads.get());
+    Mockito.verify(reactiveHashOperations, Mockito.times(1)).multiGet(Mockito.any(), Mockito.anyCollection());
+  }
+
+  @Test
+  void testGetAllReloadsExpiredFields() {
+    String hashKey = CacheRegion.FULFILLMENT_OPTIONS.key("adidas-US");
+    Mockito.when(reactiveHashOperations.multiGet(hashKey, List.of("HomeDelivery")))
+        .thenReturn(Mono.just(Arrays.asList(cacheValueCodec.encode("hd", Long.MAX_VALUE,
+            System.currentTimeMillis() - 1))));
+    Mockito.when(reactiveHashOperations.putAll(Mockito.eq(hashKey), Mockito.anyMap())).thenReturn(Mono.just(true));
+    Mockito.when(redisOperations.expire(hashKey, TTL)).thenReturn(Mono.just(true));
+
+    StepVerifier.create(getAll(hashKey, List.of("HomeDelivery"), missingFields -> Mono.just(Map.of("HomeDelivery",
+        "cnc")))).expectNext(Map.of("HomeDelivery", "cnc")).verifyComplete();
+
+    Assertions.assertEquals(1, count(ReferenceDataCache.TIER_L2, "miss"));
+  }
+
+  @Test
+  void testGetManyReadsAllKeysInOneRoundTrip() {
+    String homeDeliveryKey = CacheRegion.SHIPPING_METHODS.key("adidas-US", "HomeDelivery");
+    String clickAndCollectKey = CacheRegion.SHIPPING_METHODS.key("adidas-US", "ClickAndCollect");
+    Mockito.when(reactiveValueOperations.multiGet(List.of(clickAndCollectKey, homeDeliveryKey)))
+        .thenReturn(Mono.just(Arrays.asList(json("cnc"), null)));
+    Mockito.when(reactiveValueOperations.set(Mockito.eq(homeDeliveryKey), AdditionalMatchers.aryEq(json("hd")),
+        Mockito.eq(TTL))).thenReturn(Mono.just(true));
+
+    StepVerifier.create(referenceDataCache.getMany(CacheRegion.SHIPPING_METHODS,
+        List.of(homeDeliveryKey, clickAndCollectKey), TTL, String.class,
+        missingKeys -> Mono.just(Map.of(missingKeys.get(0), "hd"))))
+        .expectNext(Map.of(clickAndCollectKey, "cnc", homeDeliveryKey, "hd"))
+        .verifyComplete();
+
+    Mockito.verify(reactiveValueOperations, Mockito.never()).get(Mockito.any());
+  }
+
+  @Test
+  void testGetManyOfOneKeyDoesNotJoinConcurrentGet() {
+    Mockito.when(reactiveValueOperations.get(CACHE_KEY)).thenReturn(Mono.never());
+    Mockito.when(reactiveValueOperations.multiGet(List.of(CACHE_KEY)))
+        .thenReturn(Mono.just(Arrays.asList(json("adidas-US"))));
+
+    Disposable pendingGet = get(() -> Mono.just("adidas-US")).subscribe();
+    StepVerifier.create(referenceDataCache.getMany(CacheRegion.SITE_ID, List.of(CACHE_KEY), TTL, String.class,
+        missingKeys -> Mono.error(new IllegalStateException("unexpected load"))))
+        .expectNext(Map.of(CACHE_KEY, "adidas-US"))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+    pendingGet.dispose();
+  }
+
+  @Test
+  void testEvictLocalDropsKeyAndHashFields() {
+    String hashKey = CacheRegion.FULFILLMENT_OPTIONS.key("adidas-US");
+    Mockito.when(reactiveHashOperations.multiGet(hashKey, List.of("HomeDelivery")))
+        .thenReturn(Mono.just(Arrays.asList(json("hd"))));
+
+    StepVerifier.create(getAll(hashKey, List.of("HomeDelivery"), missingFields -> Mono.empty()))
+        .expectNext(Map.of("HomeDelivery", "hd")).verifyComplete();
+    referenceDataCache.evictLocal(CacheRegion.FULFILLMENT_OPTIONS, hashKey);
+    StepVerifier.create(getAll(hashKey, List.of("HomeDelivery"), missingFields -> Mono.empty()))
+        .expectNext(Map.of("HomeDelivery", "hd")).verifyComplete();
+
+    Mockito.verify(reactiveHashOperations, Mockito.times(2)).multiGet(hashKey, List.of("HomeDelivery"));
+  }
+
+  private Mono<Map<String, String>> getAll(String hashKey, List<String> fields,
+      Function<List<String>, Mono<Map<String, String>>> loader) {
+    return referenceDataCache.getAll(CacheRegion.FULFILLMENT_OPTIONS, hashKey, fields, TTL, String.class, loader);
+  }
+
+  private Mono<String> get(Supplier<Mono<String>> loader) {
+    return referenceDataCache.get(CacheRegion.SITE_ID, CACHE_KEY, TTL, String.class, loader);
+  }
+
+  private static byte[] json(String value) {
+    return ("\"" + value + "\"").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private double count(String tier, String result) {
+    return meterRegistry.get(ReferenceDataCache.GETS_METRIC).tags("cache", "siteId", "tier", tier, "result", result)
+        .counter().count();
+  }
+}
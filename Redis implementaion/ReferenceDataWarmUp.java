@@ -0,0 +1,86 @@
+package com.adidas.next.shippingapi.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.adidas.next.shippingapi.cache.CacheRegion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Loads the site, fulfillment options and shipping methods of the configured sites into the reference data cache
+ * before the pod takes traffic. Spring Boot only switches the readiness state to accepting traffic once the
+ * {@link ApplicationReadyEvent} listeners have returned, so the readiness probe keeps failing while this runs. The
+ * warm-up is bounded by a timeout and never fails the startup: sites that could not be loaded are simply left to
+ * the first request.
+ */
+@Slf4j
+@Component
+public class ReferenceDataWarmUp {
+
+  static final String DURATION_METRIC = "reference.cache.warmup.duration";
+  static final String ENTRIES_METRIC = "reference.cache.warmup.entries";
+
+  private final ShippingOptionsBaseService shippingOptionsService;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${cache-warm-up.sites:}")
+  private List<String> sites;
+
+  @Value("${cache-warm-up.timeout-seconds:60}")
+  private long timeout;
+
+  @Value("${cache-warm-up.concurrency:4}")
+  private int concurrency;
+
+  public ReferenceDataWarmUp(ShippingOptionsBaseService shippingOptionsService, MeterRegistry meterRegistry) {
+    this.shippingOptionsService = shippingOptionsService;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (sites.isEmpty()) {
+      return;
+    }
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = Flux.fromIterable(sites)
+        .flatMap(this::warmUp, concurrency)
+        .then(Mono.just("success"))
+        .timeout(Duration.ofSeconds(timeout), Mono.fromSupplier(() -> {
+          log.warn("Cache warm-up did not complete within {} seconds", timeout);
+          return "timeout";
+        }))
+        .block();
+    long duration = sample.stop(meterRegistry.timer(DURATION_METRIC, "outcome", outcome));
+    log.info("Cache warm-up of {} sites finished with outcome {} in {} ms", sites.size(), outcome,
+        Duration.ofNanos(duration).toMillis());
+  }
+
+  private Mono<ShippingOptionsContext> warmUp(String siteName) {
+    return shippingOptionsService.getShippingOptionsContext(siteName, List.of())
+        .doOnNext(context -> {
+          entries(CacheRegion.SITE_ID).increment();
+          entries(CacheRegion.FULFILLMENT_OPTIONS).increment(context.getFulfillmentOptions().size());
+          entries(CacheRegion.SHIPPING_METHODS).increment(context.getShippingMethods().size());
+        })
+        .onErrorResume(error -> {
+          log.warn("Cache warm-up failed for siteId : {}", siteName, error);
+          return Mono.empty();
+        });
+  }
+
+  private Counter entries(CacheRegion region) {
+    return meterRegistry.counter(ENTRIES_METRIC, "cache", region.getPrefix());
+  }
+}
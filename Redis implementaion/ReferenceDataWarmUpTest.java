@@ -0,0 +1,81 @@
+package com.adidas.next.shippingapi.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.adidas.next.shippingapi.TestHelper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataWarmUpTest extends TestHelper {
+
+  @Mock
+  ShippingOptionsBaseService shippingOptionsService;
+
+  SimpleMeterRegistry meterRegistry;
+
+  ReferenceDataWarmUp referenceDataWarmUp;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    referenceDataWarmUp = new ReferenceDataWarmUp(shippingOptionsService, meterRegistry);
+    ReflectionTestUtils.setField(referenceDataWarmUp, "sites", List.of("adidas-US", "adidas-CA"));
+    ReflectionTestUtils.setField(referenceDataWarmUp, "timeout", 5L);
+    ReflectionTestUtils.setField(referenceDataWarmUp, "concurrency", 2);
+  }
+
+  @Test
+  void testWarmUpLoadsEverySiteAndRecordsEntries() {
+    Mockito.when(shippingOptionsService.getShippingOptionsContext("adidas-US", List.of()))
+        .thenReturn(Mono.just(new ShippingOptionsContext(prepareSiteId(),
+            Map.of("HomeDelivery", prepareShippingOption()), Map.of("ClickAndCollect", buildShippingMethod()))));
+    Mockito.when(shippingOptionsService.getShippingOptionsContext("adidas-CA", List.of()))
+        .thenReturn(Mono.error(new IllegalStateException("database unavailable")));
+
+    referenceDataWarmUp.warmUp();
+
+    Assertions.assertEquals(1, entries("siteId"));
+    Assertions.assertEquals(1, entries("fulfillmentOptionsByType"));
+    Assertions.assertEquals(1, entries("shippingMethods"));
+    Assertions.assertEquals(1, meterRegistry.get(ReferenceDataWarmUp.DURATION_METRIC).tags("outcome", "success")
+        .timer().count());
+  }
+
+  @Test
+  void testWarmUpStopsAtTimeout() {
+    ReflectionTestUtils.setField(referenceDataWarmUp, "timeout", 1L);
+    Mockito.when(shippingOptionsService.getShippingOptionsContext(Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(Mono.never());
+
+    Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> referenceDataWarmUp.warmUp());
+
+    Assertions.assertEquals(1, meterRegistry.get(ReferenceDataWarmUp.DURATION_METRIC).tags("outcome", "timeout")
+        .timer().count());
+  }
+
+  @Test
+  void testWarmUpIsSkippedWithoutSites() {
+    ReflectionTestUtils.setField(referenceDataWarmUp, "sites", List.of());
+
+    referenceDataWarmUp.warmUp();
+
+    Mockito.verifyNoInteractions(shippingOptionsService);
+  }
+
+  private double entries(String cache) {
+    return meterRegistry.get(ReferenceDataWarmUp.ENTRIES_METRIC).tags("cache", cache).counter().count();
+  }
+}
@@ -0,0 +1,209 @@
+package com.adidas.next.shippingapi.handler.cnc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Compiled form of the inclusion or exclusion data of one CNC rule type, such as a list of postal codes. Entries
+ * are exact values, held in a hash set. Only when patterns are enabled at compile time are entries split by kind:
+ * <ul>
+ * <li>exact values, held in a hash set;</li>
+ * <li>prefixes ending in {@code *}, held in a trie;</li>
+ * <li>numeric ranges such as {@code 90000-90999}, merged and kept sorted per number of digits for a binary
+ * search.</li>
+ * </ul>
+ * Values are compared ignoring case and surrounding whitespace, as the rule data has always been compared.
+ * {@link #matches(String)} does not allocate.
+ */
+public final class RuleValueMatcher {
+
+  private static final int MAX_DIGITS = 18;
+  private static final RuleValueMatcher EMPTY = new RuleValueMatcher(Set.of(), new TrieNode(), new long[0][][]);
+
+  private final Set<String> exactValues;
+  private final TrieNode prefixes;
+  private final long[][][] rangesByDigits;
+
+  private RuleValueMatcher(Set<String> exactValues, TrieNode prefixes, long[][][] rangesByDigits) {
+    this.exactValues = exactValues;
+    this.prefixes = prefixes;
+    this.rangesByDigits = rangesByDigits;
+  }
+
+  public static RuleValueMatcher empty() {
+    return EMPTY;
+  }
+
+  public static RuleValueMatcher compile(Collection<String> entries) {
+    return compile(entries, false);
+  }
+
+  /**
+   * @param patterns whether entries ending in {@code *} are prefixes and numeric {@code a-b} entries with halves of
+   *     equal length are ranges, rather than literal values
+   */
+  public static RuleValueMatcher compile(Collection<String> entries, boolean patterns) {
+    Set<String> exactValues = new HashSet<>();
+    TrieNode prefixes = new TrieNode();
+    List<List<long[]>> ranges = new ArrayList<>();
+    for (int digits = 0; digits <= MAX_DIGITS; digits++) {
+      ranges.add(new ArrayList<>());
+    }
+    for (String entry : entries) {
+      String value = normalize(entry);
+      int separator = value.indexOf('-');
+      if (patterns && value.endsWith("*")) {
+        prefixes.insert(value, value.length() - 1);
+      } else if (patterns && separator > 0 && separator == value.length() - separator - 1
+          && isNumeric(value, 0, separator) && isNumeric(value, separator + 1, value.length())) {
+        ranges.get(separator).add(new long[] {parse(value, 0, separator), parse(value, separator + 1, value.length())});
+      } else if (!value.isEmpty()) {
+        exactValues.add(value);
+      }
+    }
+    if (exactValues.isEmpty() && prefixes.isLeaf() && ranges.stream().allMatch(List::isEmpty)) {
+      return EMPTY;
+    }
+    long[][][] rangesByDigits = new long[MAX_DIGITS + 1][][];
+    for (int digits = 0; digits <= MAX_DIGITS; digits++) {
+      rangesByDigits[digits] = merge(ranges.get(digits));
+    }
+    return new RuleValueMatcher(exactValues, prefixes, rangesByDigits);
+  }
+
+  /**
+   * Normalizes a value the way rule entries are normalized: trimmed and upper case. Callers normalize the request
+   * value once and match the result against every rule.
+   */
+  public static String normalize(String value) {
+    return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Tells whether a value normalized with {@link #normalize(String)} matches any entry.
+   */
+  public boolean matches(String normalizedValue) {
+    if (exactValues.contains(normalizedValue) || prefixes.matchesPrefixOf(normalizedValue)) {
+      return true;
+    }
+    int digits = normalizedValue.length();
+    if (digits == 0 || digits >= rangesByDigits.length || rangesByDigits[digits].length == 0
+        || !isNumeric(normalizedValue, 0, digits)) {
+      return false;
+    }
+    long[][] ranges = rangesByDigits[digits];
+    long number = parse(normalizedValue, 0, digits);
+    int low = 0;
+    int high = ranges.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (number < ranges[middle][0]) {
+        high = middle - 1;
+      } else if (number > ranges[middle][1]) {
+        low = middle + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean isEmpty() {
+    return this == EMPTY;
+  }
+
+  private static long[][] merge(List<long[]> ranges) {
+    ranges.sort(Comparator.comparingLong(range -> range[0]));
+    List<long[]> merged = new ArrayList<>();
+    for (long[] range : ranges) {
+      long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && range[0] <= last[1] + 1) {
+        last[1] = Math.max(last[1], range[1]);
+      } else {
+        merged.add(Arrays.copyOf(range, 2));
+      }
+    }
+    return merged.toArray(new long[0][]);
+  }
+
+  private static boolean isNumeric(String value, int from, int to) {
+    if (to - from > MAX_DIGITS) {
+      return false;
+    }
+    for (int i = from; i < to; i++) {
+      char character = value.charAt(i);
+      if (character < '0' || character > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long parse(String value, int from, int to) {
+    long number = 0;
+    for (int i = from; i < to; i++) {
+      number = number * 10 + (value.charAt(i) - '0');
+    }
+    return number;
+  }
+
+  private static final class TrieNode {
+
+    private char[] labels = new char[0];
+    private TrieNode[] children = new TrieNode[0];
+    private boolean terminal;
+
+    private void insert(String value, int length) {
+      TrieNode node = this;
+      for (int i = 0; i < length; i++) {
+        node = node.childOrCreate(value.charAt(i));
+      }
+      node.terminal = true;
+    }
+
+    private boolean isLeaf() {
+      return labels.length == 0 && !terminal;
+    }
+
+    private boolean matchesPrefixOf(String value) {
+      TrieNode node = this;
+      for (int i = 0; i < value.length(); i++) {
+        if (node.terminal) {
+          return true;
+        }
+        node = node.child(value.charAt(i));
+        if (node == null) {
+          return false;
+        }
+      }
+      return node.terminal;
+    }
+
+    private TrieNode child(char label) {
+      for (int i = 0; i < labels.length; i++) {
+        if (labels[i] == label) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    private TrieNode childOrCreate(char label) {
+      TrieNode child = child(label);
+      if (child == null) {
+        child = new TrieNode();
+        labels = Arrays.copyOf(labels, labels.length + 1);
+        children = Arrays.copyOf(children, children.length + 1);
+        labels[labels.length - 1] = label;
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
+}
@@ -2,45 +2,66 @@ package com.adidas.next.shippingapi.service;
 
 import java.time.Duration;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisOperations;
 
+import com.adidas.next.shippingapi.cache.CacheRegion;
+import com.adidas.next.shippingapi.cache.ReferenceDataCache;
 import com.adidas.next.shippingapi.entity.FulfillmentOption;
 import com.adidas.next.shippingapi.entity.SiteId;
 import com.adidas.next.shippingapi.enums.FulfillmentType;
+import com.adidas.next.shippingapi.handler.cnc.CNCDPEServiceHelper;
 import com.adidas.next.shippingapi.handler.hd.DPEDefaultResponseHandler;
 import com.adidas.next.shippingapi.repository.FulfillmentReadRepository;
 import com.adidas.next.shippingapi.repository.SiteIdReadRepository;
+import com.adidas.next.shippingapi.repository.SiteShippingContextReadRepository;
 import com.adidas.next.shippingapi.resources.request.ShippingOptionsPostRequest;
 import com.adidas.next.shippingapi.resources.response.ShippingOptionsResponse;
-import com.adidas.next.shippingapi.util.JsonObjectMapper;
 
 import lombok.extern.slf4j.Slf4j;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
 public class ShippingOptionsBaseService {
   
   private static final String HOMEDELIVERY = FulfillmentType.HOMEDELIVERY.getValue();
+  private static final List<String> ALL_FULFILLMENT_TYPES = Arrays.stream(FulfillmentType.values())
+      .map(FulfillmentType::getValue).collect(Collectors.toUnmodifiableList());
 
   @Value("${cache-expiry-seconds}")
   private long cacheExpiryTime;
 
-  @Autowired
-  private ReactiveRedisOperations<String, String> redisOperations;
+  @Value("${fulfillment-branch.default-budget-millis:11000}")
+  private long defaultBranchBudget;
+
+  @Value("#{${fulfillment-branch.budget-millis:{:}}}")
+  private Map<String, Long> branchBudgets;
+
+  @Value("${site-context.single-query.enabled:false}")
+  private boolean singleQuerySiteContext;
 
   @Autowired
-  private JsonObjectMapper jsonObjectMapper;
+  private ReferenceDataCache referenceDataCache;
 
   @Autowired
   private DPEDefaultResponseHandler dpeDefaultResponseHandler;
 
+  @Autowired
+  private CNCDPEServiceHelper cncDPEServiceHelper;
+
+  @Autowired
+  private SiteShippingContextReadRepository siteShippingContextReadRepository;
+
   private final FulfillmentReadRepository fulfillmentReadRepository;
   private final SiteIdReadRepository siteIdReadRepository;
 
@@ -51,43 +72,89 @@ public class ShippingOptionsBaseService {
   }
 
   public Mono<Map<String, FulfillmentOption>> getfulfillmentOptions(SiteId siteId, List<String> fulfillmentTypes) {
-    var cacheKey = String.join("-", "fulfillmentOptions", siteId.getName());
-    return redisOperations.opsForValue().get(cacheKey).map(jsonString -> {
-      log.info("Get cached fulfillmentOptions value for siteId : {}", siteId.getName());
-      return jsonObjectMapper.jsonStringToListOfObject(jsonString, FulfillmentOption.class);
-    }).switchIfEmpty(Mono.defer(() -> fulfillmentReadRepository.findBySiteIdAndFulfilmentType(siteId.getId(), 
-        fulfillmentTypes).collectList()
-        .flatMap(fulfillmentOptions -> redisOperations.opsForValue()
-                    .set(cacheKey, jsonObjectMapper.toJsonString(fulfillmentOptions),
-                        Duration.ofSeconds(cacheExpiryTime))
-                    .then(Mono.just(fulfillmentOptions)))))
-      .flatMap(this::prepareFulfillmentOptions);
+    return getfulfillmentOptions(siteId.getName(), Mono.just(siteId), fulfillmentTypes);
+  }
+
+  /**
+   * Resolves the site, its fulfillment options and the shipping methods of the requested fulfillment types with
+   * every cache read issued up front. The commands share the Redis connection, so a fully cached request costs a
+   * single pipelined batch; the site is only awaited by the database fallbacks of the other two lookups.
+   */
+  public Mono<ShippingOptionsContext> getShippingOptionsContext(ShippingOptionsPostRequest shippingOptionsRequest,
+      List<String> fulfillmentTypes) {
+    return getShippingOptionsContext(shippingOptionsRequest.getSiteId(), fulfillmentTypes);
+  }
+
+  public Mono<ShippingOptionsContext> getShippingOptionsContext(String siteName, List<String> fulfillmentTypes) {
+    List<String> requestedTypes = requestedFulfillmentTypes(fulfillmentTypes);
+    if (singleQuerySiteContext) {
+      return getSiteShippingContext(siteName).map(context -> context.forFulfillmentTypes(requestedTypes));
+    }
+    Mono<SiteId> siteId = getSiteId(siteName).cache();
+    return Mono.zip(siteId, getfulfillmentOptions(siteName, siteId, requestedTypes),
+        cncDPEServiceHelper.getShippingMethods(requestedTypes, siteName, siteId))
+        .map(context -> new ShippingOptionsContext(context.getT1(), context.getT2(), context.getT3()));
+  }
+
+  /**
+   * Resolves the complete context of a site, covering every fulfillment type, as a single cache entry that is
+   * loaded from the database with one query on a miss.
+   */
+  public Mono<ShippingOptionsContext> getSiteShippingContext(String siteName) {
+    var cacheKey = CacheRegion.SITE_CONTEXT.key(siteName);
+    return referenceDataCache.get(CacheRegion.SITE_CONTEXT, cacheKey, Duration.ofSeconds(cacheExpiryTime),
+        ShippingOptionsContext.class, () -> siteShippingContextReadRepository.findBySiteName(siteName));
+  }
+
+  private Mono<Map<String, FulfillmentOption>> getfulfillmentOptions(String siteName, Mono<SiteId> siteId,
+      List<String> fulfillmentTypes) {
+    var cacheKey = CacheRegion.FULFILLMENT_OPTIONS.key(siteName);
+    return referenceDataCache.getAll(CacheRegion.FULFILLMENT_OPTIONS, cacheKey,
+        requestedFulfillmentTypes(fulfillmentTypes), Duration.ofSeconds(cacheExpiryTime), FulfillmentOption.class,
+        missingTypes -> siteId.flatMap(site -> fulfillmentReadRepository
+            .findBySiteIdAndFulfilmentType(site.getId(), missingTypes)
+            .collectMap(FulfillmentOption::getFulfillmentType)));
   }
 
   public Mono<SiteId> getSiteId(String siteId) {
-    var cacheKey = String.join("-", "siteId", siteId);
-    return redisOperations.opsForValue().get(cacheKey).map(jsonString -> {
-      log.info("Get cached value for siteId : {}", siteId);
-      return jsonObjectMapper.jsonStringToObject(SiteId.class, jsonString);
-    }).switchIfEmpty(getSiteIdByName(siteId, cacheKey));
+    var cacheKey = CacheRegion.SITE_ID.key(siteId);
+    return referenceDataCache.get(CacheRegion.SITE_ID, cacheKey, Duration.ofSeconds(cacheExpiryTime), SiteId.class,
+        () -> siteIdReadRepository.findByName(siteId));
   }
   
+  /**
+   * Builds the responses of the requested fulfillment types concurrently, so the overall latency follows the
+   * slowest branch rather than the sum of all of them. Responses keep the order of {@code fulfillmentTypes}. A
+   * branch that exceeds its budget is dropped and reported as degraded instead of holding back the others; any
+   * other error still fails the whole call.
+   */
+  public Mono<ShippingOptionsResult> createShippingOptionsInParallel(List<String> fulfillmentTypes,
+      Function<String, Mono<ShippingOptionsResponse>> branch) {
+    List<String> degradedTypes = new CopyOnWriteArrayList<>();
+    return Flux.fromIterable(fulfillmentTypes)
+        .flatMapSequential(fulfillmentType -> branch.apply(fulfillmentType)
+            .timeout(branchBudget(fulfillmentType))
+            .onErrorResume(TimeoutException.class, e -> {
+              log.warn("Fulfillment type {} exceeded its budget of {}, returning degraded response", fulfillmentType,
+                  branchBudget(fulfillmentType));
+              degradedTypes.add(fulfillmentType);
+              return Mono.empty();
+            }), Math.max(1, fulfillmentTypes.size()))
+        .collectList()
+        .map(shippingOptions -> new ShippingOptionsResult(shippingOptions, List.copyOf(degradedTypes)));
+  }
+
   public Mono<ShippingOptionsResponse> createUSPSDPEResponse(ShippingOptionsPostRequest shippingOptionsRequest,
       SiteId siteIdResponse, Map<String, FulfillmentOption> fulfillmentOptionMap) {
     return dpeDefaultResponseHandler.createUSPSDPEDefaultResponse(shippingOptionsRequest, siteIdResponse,
         fulfillmentOptionMap.get(HOMEDELIVERY));
   }
 
-  private Mono<Map<String, FulfillmentOption>> prepareFulfillmentOptions(List<FulfillmentOption> fulfillmentOptions) {
-    Map<String, FulfillmentOption> fulfillmentOptionsMap = new HashMap<>();
-    fulfillmentOptions.forEach(shippingOption -> fulfillmentOptionsMap.put(shippingOption.getFulfillmentType(), shippingOption));
-    return Mono.just(fulfillmentOptionsMap);
+  private Duration branchBudget(String fulfillmentType) {
+    return Duration.ofMillis(branchBudgets.getOrDefault(fulfillmentType, defaultBranchBudget));
   }
 
-  private Mono<SiteId> getSiteIdByName(String siteId, String cacheKey) {
-    return Mono.defer(() -> siteIdReadRepository.findByName(siteId)
-        .flatMap(siteIdResponse -> redisOperations.opsForValue()
-            .set(cacheKey, jsonObjectMapper.toJsonString(siteIdResponse), Duration.ofSeconds(cacheExpiryTime))
-            .then(Mono.just(siteIdResponse))));
+  private static List<String> requestedFulfillmentTypes(List<String> fulfillmentTypes) {
+    return fulfillmentTypes.isEmpty() ? ALL_FULFILLMENT_TYPES : fulfillmentTypes;
   }
 }
@@ -0,0 +1,49 @@
+package com.adidas.next.shippingapi.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.adidas.next.shippingapi.entity.FulfillmentOption;
+import com.adidas.next.shippingapi.entity.ShippingMethods;
+import com.adidas.next.shippingapi.entity.SiteId;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Getter;
+
+/**
+ * Immutable view of a site with its fulfillment options and shipping methods keyed by fulfillment type. The
+ * complete context of a site is also the unit cached under {@code CacheRegion.SITE_CONTEXT}.
+ */
+@Getter
+public class ShippingOptionsContext {
+
+  private final SiteId siteId;
+  private final Map<String, FulfillmentOption> fulfillmentOptions;
+  private final Map<String, ShippingMethods> shippingMethods;
+
+  @JsonCreator
+  public ShippingOptionsContext(@JsonProperty("siteId") SiteId siteId,
+      @JsonProperty("fulfillmentOptions") Map<String, FulfillmentOption> fulfillmentOptions,
+      @JsonProperty("shippingMethods") Map<String, ShippingMethods> shippingMethods) {
+    this.siteId = siteId;
+    this.fulfillmentOptions = fulfillmentOptions == null ? Map.of() : Map.copyOf(fulfillmentOptions);
+    this.shippingMethods = shippingMethods == null ? Map.of() : Map.copyOf(shippingMethods);
+  }
+
+  /**
+   * Narrows the context to the given fulfillment types.
+   */
+  public ShippingOptionsContext forFulfillmentTypes(Collection<String> fulfillmentTypes) {
+    return new ShippingOptionsContext(siteId, filter(fulfillmentOptions, fulfillmentTypes::contains),
+        filter(shippingMethods, fulfillmentTypes::contains));
+  }
+
+  private static <T> Map<String, T> filter(Map<String, T> valuesByType, Predicate<String> requested) {
+    return valuesByType.entrySet().stream()
+        .filter(entry -> requested.test(entry.getKey()))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+}
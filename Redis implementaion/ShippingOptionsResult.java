@@ -0,0 +1,24 @@
+package com.adidas.next.shippingapi.service;
+
+import java.util.List;
+
+import com.adidas.next.shippingapi.resources.response.ShippingOptionsResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Shipping options of every fulfillment type that answered within its budget, in the requested order. The types
+ * that were cut off are listed separately so the caller can flag the response as degraded.
+ */
+@Getter
+@AllArgsConstructor
+public class ShippingOptionsResult {
+
+  private final List<ShippingOptionsResponse> shippingOptions;
+  private final List<String> degradedFulfillmentTypes;
+
+  public boolean isDegraded() {
+    return !degradedFulfillmentTypes.isEmpty();
+  }
+}
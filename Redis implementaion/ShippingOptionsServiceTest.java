@@ -2,30 +2,43 @@ package com.adidas.next.shippingapi.service;
 
 import static com.adidas.next.shippingapi.constant.ErrorConstants.NOT_FOUND_CODE;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisOperations;
 import org.springframework.data.redis.core.ReactiveValueOperations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
 import com.adidas.next.shippingapi.TestHelper;
+import com.adidas.next.shippingapi.cache.CacheValueCodec;
+import com.adidas.next.shippingapi.cache.ReferenceDataCache;
 import com.adidas.next.shippingapi.client.DeliveryPromiseMSClient;
 import com.adidas.next.shippingapi.client.DeliveryPromiseServiceClient;
 import com.adidas.next.shippingapi.converter.ShippingMethodPostRequestConverter;
 import com.adidas.next.shippingapi.converter.hd.DPEDefaultResponseConverter;
 import com.adidas.next.shippingapi.converter.hd.DPERequestConverter;
 import com.adidas.next.shippingapi.converter.hd.DPEResponseConverter;
+import com.adidas.next.shippingapi.entity.FulfillmentOption;
 import com.adidas.next.shippingapi.exception.NotFoundException;
 import com.adidas.next.shippingapi.handler.cnc.CNCDPEServiceHandler;
+import com.adidas.next.shippingapi.handler.cnc.CNCDPEServiceHelper;
 import com.adidas.next.shippingapi.handler.hd.DPEDefaultResponseHandler;
 import com.adidas.next.shippingapi.handler.hd.DPEServiceHandler;
 import com.adidas.next.shippingapi.handler.pudo.PUDODPEServiceBaseHandler;
@@ -33,10 +46,12 @@ import com.adidas.next.shippingapi.handler.pudo.PUDODPEServiceHandler;
 import com.adidas.next.shippingapi.handler.pudo.PUDOSiteIdDefaultResponseHandler;
 import com.adidas.next.shippingapi.repository.FulfillmentReadRepository;
 import com.adidas.next.shippingapi.repository.SiteIdReadRepository;
+import com.adidas.next.shippingapi.repository.SiteShippingContextReadRepository;
 import com.adidas.next.shippingapi.resources.request.ShippingOptionsPostRequest;
 import com.adidas.next.shippingapi.resources.response.ShippingOptionsResponse;
 import com.adidas.next.shippingapi.util.JsonObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -74,8 +89,14 @@ public class ShippingOptionsServiceTest extends TestHelper {
   @Mock
   CNCDPEServiceHandler cncdpeHandler;
   
+  @Mock
+  CNCDPEServiceHelper cncDPEServiceHelper;
+  
   @Mock
   SiteIdReadRepository siteIdReadRepository;
+
+  @Mock
+  SiteShippingContextReadRepository siteShippingContextReadRepository;
   
   @Mock
   PUDODPEServiceHandler pudodpeServiceHandler;
@@ -87,10 +108,13 @@ public class ShippingOptionsServiceTest extends TestHelper {
   PUDODPEServiceBaseHandler pudoDPEServiceBaseHandler;
   
   @Mock
-  ReactiveRedisOperations<String, String> redisOperations;
+  ReactiveRedisOperations<String, byte[]> redisOperations;
+  
+  @Mock
+  ReactiveValueOperations<String, byte[]> reactiveValueOperations;
   
   @Mock
-  ReactiveValueOperations<String, String> reactiveValueOperations;
+  ReactiveHashOperations<String, String, byte[]> reactiveHashOperations;
   
   @Mock
   JsonObjectMapper jsonObjectMapper;
@@ -101,6 +125,21 @@ public class ShippingOptionsServiceTest extends TestHelper {
   @Mock
   DPEDefaultResponseHandler dpeDefaultResponseHandler;
 
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(shippingOptionsService, "referenceDataCache",
+        new ReferenceDataCache(redisOperations, new SimpleMeterRegistry(),
+            new CacheValueCodec(jsonObjectMapper, new Jackson2ObjectMapperBuilder()), 100, 60));
+    Mockito.when(jsonObjectMapper.toJsonBytes(Mockito.any())).thenReturn(new byte[] {'{', '}'});
+    Mockito.when(redisOperations.<String, byte[]>opsForHash()).thenReturn(reactiveHashOperations);
+    Mockito.when(reactiveHashOperations.multiGet(Mockito.any(), Mockito.anyCollection()))
+        .thenAnswer(invocation -> Mono.just(Arrays.asList(new byte[invocation.<Collection<?>>getArgument(1).size()][])));
+    Mockito.when(reactiveHashOperations.putAll(Mockito.any(), Mockito.anyMap())).thenReturn(Mono.just(true));
+    Mockito.when(redisOperations.expire(Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
+    ReflectionTestUtils.setField(shippingOptionsService, "defaultBranchBudget", 11000L);
+    ReflectionTestUtils.setField(shippingOptionsService, "branchBudgets", Map.of("PUDO", 6000L));
+  }
+
   @Test
   void testGetShippingOptionsForHomeDeliverySuccess() {
     List<String> embed = new ArrayList<>();
@@ -496,10 +535,10 @@ public class ShippingOptionsServiceTest extends TestHelper {
     Mockito.when(dpeHandler.createDPE(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
         .thenReturn(Mono.just(buildShippingOptionsResponseForPost()));
     Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
-    Mockito.when(reactiveValueOperations.get("fulfillmentOptions-adidas-US")).thenReturn(Mono.empty());
-    Mockito.when(reactiveValueOperations.get("siteId-adidas-US")).thenReturn(Mono.just(buildSiteIDJsonString()));
+    Mockito.when(reactiveValueOperations.get("siteId-adidas-US"))
+        .thenReturn(Mono.just(buildSiteIDJsonString().getBytes(StandardCharsets.UTF_8)));
     Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
-    Mockito.when(jsonObjectMapper.jsonStringToObject(Mockito.any(), Mockito.any())).thenReturn(prepareSiteId());
+    Mockito.when(jsonObjectMapper.jsonBytesToObject(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(prepareSiteId());
 
     Mono<List<ShippingOptionsResponse>> shippingOptionsResponse = shippingOptionsService
         .createShippingOptions(shippingOptionsPostRequest, embed);
@@ -525,13 +564,20 @@ public class ShippingOptionsServiceTest extends TestHelper {
         .thenReturn(Mono.just(buildShippingOptionsResponseForPostwithNull()));
     Mockito.when(dpeHandler.createDPE(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
         .thenReturn(Mono.just(buildShippingOptionsResponseForPost()));
+    Mockito.when(fulfillmentReadRepository.findBySiteIdAndFulfilmentType(Mockito.any(), Mockito.anyList())).thenReturn(Flux.empty());
     Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
-    Mockito.when(reactiveValueOperations.get("fulfillmentOptions-adidas-US"))
-        .thenReturn(Mono.just(buildFulfillmentOptionsJsonString()));
+    Mockito.when(reactiveHashOperations.multiGet(Mockito.eq("fulfillmentOptionsByType-adidas-US"), Mockito.anyCollection()))
+        .thenAnswer(invocation -> {
+          List<byte[]> cachedValues = new ArrayList<>();
+          invocation.<Collection<String>>getArgument(1).forEach(fulfillmentType -> cachedValues.add("HomeDelivery"
+              .equals(fulfillmentType) ? buildFulfillmentOptionsJsonString().getBytes(StandardCharsets.UTF_8) : null));
+          return Mono.just(cachedValues);
+        });
     Mockito.when(reactiveValueOperations.get("siteId-adidas-US")).thenReturn(Mono.empty());
     Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
-    Mockito.when(jsonObjectMapper.jsonStringToListOfObject(Mockito.any(), Mockito.any()))
-        .thenReturn(List.of(prepareShippingOption()));
+    Mockito.when(jsonObjectMapper.jsonBytesToObject(Mockito.eq(FulfillmentOption.class), Mockito.any(),
+        Mockito.anyInt(), Mockito.anyInt()))
+        .thenReturn(prepareShippingOption());
 
     Mono<List<ShippingOptionsResponse>> shippingOptionsResponse = shippingOptionsService
         .createShippingOptions(shippingOptionsPostRequest, embed);
@@ -809,4 +855,92 @@ public class ShippingOptionsServiceTest extends TestHelper {
     }).verifyComplete();
   }
 
+  @Test
+  void testGetShippingOptionsContext() {
+    Mockito.when(siteIdReadRepository.findByName(Mockito.anyString())).thenReturn(Mono.just(prepareSiteId()));
+    Mockito.when(fulfillmentReadRepository.findBySiteIdAndFulfilmentType(Mockito.any(), Mockito.anyList()))
+        .thenReturn(Flux.just(prepareShippingOption()));
+    Mockito.when(cncDPEServiceHelper.getShippingMethods(Mockito.anyCollection(), Mockito.anyString(), Mockito.any()))
+        .thenReturn(Mono.just(Map.of()));
+    Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+    Mockito.when(reactiveValueOperations.get(Mockito.any())).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
+
+    StepVerifier.create(shippingOptionsService.getShippingOptionsContext(buildShippingOptionsPostRequest(), List.of("HomeDelivery")))
+        .thenConsumeWhile(context -> {
+          Assertions.assertEquals("adidas-US", context.getSiteId().getName());
+          Assertions.assertEquals("HomeDelivery", context.getFulfillmentOptions().get("HomeDelivery").getFulfillmentType());
+          Assertions.assertTrue(context.getShippingMethods().isEmpty());
+          return true;
+        }).verifyComplete();
+    Mockito.verify(siteIdReadRepository, Mockito.times(1)).findByName("adidas-US");
+  }
+
+
+  @Test
+  void testGetShippingOptionsContextFromSingleQuerySiteContext() {
+    ReflectionTestUtils.setField(shippingOptionsService, "singleQuerySiteContext", true);
+    Mockito.when(redisOperations.opsForValue()).thenReturn(reactiveValueOperations);
+    Mockito.when(reactiveValueOperations.get(Mockito.any())).thenReturn(Mono.empty());
+    Mockito.when(reactiveValueOperations.set(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Mono.just(true));
+    Mockito.when(siteShippingContextReadRepository.findBySiteName("adidas-US")).thenReturn(Mono.just(
+        new ShippingOptionsContext(prepareSiteId(), Map.of("HomeDelivery", prepareShippingOption(),
+            "ClickAndCollect", prepareShippingOptionForCNC()), Map.of())));
+
+    StepVerifier.create(shippingOptionsService.getShippingOptionsContext(buildShippingOptionsPostRequest(), List.of("HomeDelivery")))
+        .assertNext(context -> {
+          Assertions.assertEquals("adidas-US", context.getSiteId().getName());
+          Assertions.assertEquals(List.of("HomeDelivery"), List.copyOf(context.getFulfillmentOptions().keySet()));
+        }).verifyComplete();
+    Mockito.verify(reactiveValueOperations).get("siteContext-adidas-US");
+    Mockito.verifyNoInteractions(siteIdReadRepository, fulfillmentReadRepository, cncDPEServiceHelper);
+  }
+
+  @Test
+  void testCreateShippingOptionsInParallelKeepsRequestedOrder() {
+    ShippingOptionsResponse homeDelivery = buildShippingOptionsResponseForPost();
+    ShippingOptionsResponse pudo = buildShippingOptionsResponseForPostForPUDO();
+
+    StepVerifier.withVirtualTime(() -> {
+      Map<String, Mono<ShippingOptionsResponse>> branches = Map.of(
+          "HomeDelivery", Mono.delay(Duration.ofSeconds(3)).thenReturn(homeDelivery),
+          "PUDO", Mono.delay(Duration.ofSeconds(1)).thenReturn(pudo));
+      return shippingOptionsService.createShippingOptionsInParallel(List.of("HomeDelivery", "PUDO"), branches::get);
+    })
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(2999))
+        .thenAwait(Duration.ofMillis(1))
+        .assertNext(result -> {
+          Assertions.assertEquals(List.of(homeDelivery, pudo), result.getShippingOptions());
+          Assertions.assertFalse(result.isDegraded());
+        }).verifyComplete();
+  }
+
+  @Test
+  void testCreateShippingOptionsInParallelDropsBranchOverBudget() {
+    ShippingOptionsResponse homeDelivery = buildShippingOptionsResponseForPost();
+
+    StepVerifier.withVirtualTime(() -> {
+      Map<String, Mono<ShippingOptionsResponse>> branches = Map.of(
+          "HomeDelivery", Mono.delay(Duration.ofSeconds(2)).thenReturn(homeDelivery),
+          "PUDO", Mono.never());
+      return shippingOptionsService.createShippingOptionsInParallel(List.of("HomeDelivery", "PUDO"), branches::get);
+    })
+        .expectSubscription()
+        .expectNoEvent(Duration.ofMillis(5999))
+        .thenAwait(Duration.ofMillis(1))
+        .assertNext(result -> {
+          Assertions.assertEquals(List.of(homeDelivery), result.getShippingOptions());
+          Assertions.assertEquals(List.of("PUDO"), result.getDegradedFulfillmentTypes());
+        }).verifyComplete();
+  }
+
+  @Test
+  void testCreateShippingOptionsInParallelPropagatesBranchErrors() {
+    StepVerifier.create(shippingOptionsService.createShippingOptionsInParallel(List.of("HomeDelivery"),
+        fulfillmentType -> Mono.error(
+            new NotFoundException(new HttpClientErrorException(HttpStatus.NOT_FOUND), NOT_FOUND_CODE))))
+        .expectError(NotFoundException.class).verify();
+  }
+
 }
@@ -0,0 +1,24 @@
+package com.adidas.next.shippingapi.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent executions for the same key so that every caller subscribes to one shared in-flight
+ * {@link Mono}. The entry is dropped as soon as the shared execution terminates, so results are never kept longer
+ * than the call itself.
+ */
+public class SingleFlight {
+
+  private final ConcurrentMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  public <T> Mono<T> execute(String key, Supplier<Mono<T>> supplier) {
+    return Mono.defer(() -> (Mono<T>) inFlight.computeIfAbsent(key, k -> supplier.get()
+        .doFinally(signalType -> inFlight.remove(k))
+        .cache()));
+  }
+}
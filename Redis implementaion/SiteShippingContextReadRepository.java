@@ -0,0 +1,169 @@
+package com.adidas.next.shippingapi.repository;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.adidas.next.shippingapi.constant.ErrorConstants;
+import com.adidas.next.shippingapi.entity.FulfillmentOption;
+import com.adidas.next.shippingapi.entity.ShippingMethods;
+import com.adidas.next.shippingapi.entity.SiteId;
+import com.adidas.next.shippingapi.exception.ShippingApiException;
+import com.adidas.next.shippingapi.service.ShippingOptionsContext;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.postgresql.codec.Json;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read model returning everything the shipping-options flow needs about a site in one round trip: the site row
+ * and, aggregated server side into JSON objects keyed by fulfillment type, its fulfillment options and shipping
+ * methods. Rows are rendered with {@code to_jsonb}, so the JSON keys are the column names and are mapped back onto
+ * the entities with the same snake case convention the entity mapping uses. Queries run on the reader and are timed
+ * under the same metric as the Spring Data repositories.
+ * <p>
+ * With {@code site-context.catalog.enabled} the options and methods are read from {@code site_shipping_catalog},
+ * which the database keeps up to date with triggers, instead of being aggregated from the source tables.
+ */
+@Slf4j
+@Repository
+public class SiteShippingContextReadRepository {
+
+  static final String FIND_BY_SITE_NAME = "SELECT to_jsonb(s) AS site,"
+      + " (SELECT jsonb_object_agg(f.fulfillment_type, to_jsonb(f)) FROM fulfillment_option f"
+      + " WHERE f.site_id = s.id) AS fulfillment_options,"
+      + " (SELECT jsonb_object_agg(m.fulfillment_type, to_jsonb(m)) FROM shipping_methods m"
+      + " WHERE m.site_id = s.id) AS shipping_methods"
+      + " FROM site_id s WHERE s.name = :name";
+  static final String FIND_BY_SITE_NAME_FROM_CATALOG = "SELECT to_jsonb(s) AS site, c.fulfillment_options,"
+      + " c.shipping_methods FROM site_id s LEFT JOIN LATERAL (SELECT"
+      + " jsonb_object_agg(c.fulfillment_type, c.fulfillment_option) FILTER (WHERE c.fulfillment_option IS NOT NULL)"
+      + " AS fulfillment_options,"
+      + " jsonb_object_agg(c.fulfillment_type, c.shipping_methods) FILTER (WHERE c.shipping_methods IS NOT NULL)"
+      + " AS shipping_methods"
+      + " FROM site_shipping_catalog c WHERE c.site_id = s.id) c ON true"
+      + " WHERE s.name = :name";
+  static final String FIND_SHIPPING_METHODS = "SELECT jsonb_object_agg(m.fulfillment_type, to_jsonb(m))"
+      + " AS shipping_methods FROM shipping_methods m"
+      + " WHERE m.site_id = :siteId AND m.fulfillment_type IN (:fulfillmentTypes)";
+  static final String FIND_SHIPPING_METHODS_FROM_CATALOG = "SELECT"
+      + " jsonb_object_agg(c.fulfillment_type, c.shipping_methods) AS shipping_methods FROM site_shipping_catalog c"
+      + " WHERE c.site_id = :siteId AND c.fulfillment_type IN (:fulfillmentTypes) AND c.shipping_methods IS NOT NULL";
+  static final String INVOCATIONS_METRIC = "spring.data.repository.invocations";
+
+  private final DatabaseClient databaseClient;
+  private final MeterRegistry meterRegistry;
+  private final String findBySiteNameQuery;
+  private final String findShippingMethodsQuery;
+  private final ObjectReader siteReader;
+  private final ObjectReader fulfillmentOptionsReader;
+  private final ObjectReader shippingMethodsReader;
+
+  public SiteShippingContextReadRepository(@Qualifier("readerDatabaseClient") DatabaseClient databaseClient,
+      ObjectMapper objectMapper, MeterRegistry meterRegistry,
+      @Value("${site-context.catalog.enabled:false}") boolean catalogEnabled) {
+    this.databaseClient = databaseClient;
+    this.meterRegistry = meterRegistry;
+    this.findBySiteNameQuery = catalogEnabled ? FIND_BY_SITE_NAME_FROM_CATALOG : FIND_BY_SITE_NAME;
+    this.findShippingMethodsQuery = catalogEnabled ? FIND_SHIPPING_METHODS_FROM_CATALOG : FIND_SHIPPING_METHODS;
+    ObjectMapper rowMapper = objectMapper.copy()
+        .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .registerModule(new SimpleModule().addDeserializer(Json.class, new JsonColumnDeserializer()));
+    TypeFactory typeFactory = rowMapper.getTypeFactory();
+    this.siteReader = rowMapper.readerFor(SiteId.class);
+    this.fulfillmentOptionsReader = rowMapper.readerFor(
+        typeFactory.constructMapType(Map.class, String.class, FulfillmentOption.class));
+    this.shippingMethodsReader = rowMapper.readerFor(
+        typeFactory.constructMapType(Map.class, String.class, ShippingMethods.class));
+  }
+
+  /**
+   * Loads the context of a site with all of its fulfillment types; completes empty when the site does not exist.
+   */
+  public Mono<ShippingOptionsContext> findBySiteName(String siteName) {
+    return timed("findBySiteName", databaseClient.sql(findBySiteNameQuery)
+        .bind("name", siteName)
+        .map((row, metadata) -> new ShippingOptionsContext(
+            this.<SiteId>read(siteReader, row.get("site", Json.class)),
+            this.<Map<String, FulfillmentOption>>read(fulfillmentOptionsReader,
+                row.get("fulfillment_options", Json.class)),
+            this.<Map<String, ShippingMethods>>read(shippingMethodsReader, row.get("shipping_methods", Json.class))))
+        .one())
+        .doOnNext(context -> log.info("Loaded shipping context for siteId : {} with fulfillmentTypes : {}", siteName,
+            context.getFulfillmentOptions().keySet()));
+  }
+
+  /**
+   * Loads the shipping methods of several fulfillment types of a site in one query, keyed by fulfillment type. Types
+   * without shipping methods are left out of the result.
+   */
+  public Mono<Map<String, ShippingMethods>> findBySiteIdAndFulfillmentTypes(SiteId siteId,
+      Collection<String> fulfillmentTypes) {
+    if (fulfillmentTypes.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+    return timed("findBySiteIdAndFulfillmentTypes", databaseClient.sql(findShippingMethodsQuery)
+        .bind("siteId", siteId.getId())
+        .bind("fulfillmentTypes", List.copyOf(fulfillmentTypes))
+        .map((row, metadata) -> {
+          Map<String, ShippingMethods> shippingMethods = read(shippingMethodsReader,
+              row.get("shipping_methods", Json.class));
+          return shippingMethods == null ? Map.<String, ShippingMethods>of() : shippingMethods;
+        })
+        .one());
+  }
+
+  private <T> Mono<T> timed(String method, Mono<T> query) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return query
+          .doOnSuccess(value -> sample.stop(invocationTimer(method, "SUCCESS", "None")))
+          .doOnError(error -> sample.stop(invocationTimer(method, "ERROR", error.getClass().getSimpleName())));
+    });
+  }
+
+  private Timer invocationTimer(String method, String state, String exception) {
+    return meterRegistry.timer(INVOCATIONS_METRIC, "repository", getClass().getSimpleName(), "method", method,
+        "state", state, "exception", exception);
+  }
+
+  private <T> T read(ObjectReader reader, Json json) {
+    if (json == null) {
+      return null;
+    }
+    try {
+      return reader.readValue(json.asInputStream());
+    } catch (IOException e) {
+      throw new ShippingApiException(e, ErrorConstants.INTERNAL_ERROR_CODE);
+    }
+  }
+
+  /**
+   * Entity fields mapped from Json columns arrive as nested JSON values inside the row object.
+   */
+  private static final class JsonColumnDeserializer extends JsonDeserializer<Json> {
+
+    @Override
+    public Json deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+      return Json.of(parser.readValueAsTree().toString());
+    }
+  }
+}
@@ -0,0 +1,106 @@
+-- Denormalized read model of the shipping reference data: one row per site and fulfillment type holding the
+-- fulfillment option and shipping methods rows exactly as the entities map them. Triggers on the source tables
+-- rebuild only the affected (site, fulfillment type) row, so the catalog is always current and a cache miss is a
+-- single primary key range scan.
+
+-- Column types are taken from the source tables.
+CREATE TABLE site_shipping_catalog AS
+SELECT f.site_id,
+       f.fulfillment_type,
+       NULL::jsonb AS fulfillment_option,
+       NULL::jsonb AS shipping_methods,
+       now()       AS refreshed_at
+FROM fulfillment_option f
+WITH NO DATA;
+
+ALTER TABLE site_shipping_catalog
+    ALTER COLUMN site_id SET NOT NULL,
+    ALTER COLUMN fulfillment_type SET NOT NULL,
+    ALTER COLUMN refreshed_at SET NOT NULL,
+    ADD CONSTRAINT site_shipping_catalog_pkey PRIMARY KEY (site_id, fulfillment_type);
+
+CREATE OR REPLACE FUNCTION refresh_site_shipping_catalog(p_site_id site_shipping_catalog.site_id%TYPE,
+                                                         p_fulfillment_type site_shipping_catalog.fulfillment_type%TYPE)
+    RETURNS void AS
+$$
+BEGIN
+    IF p_site_id IS NULL OR p_fulfillment_type IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO site_shipping_catalog (site_id, fulfillment_type, fulfillment_option, shipping_methods, refreshed_at)
+    SELECT p_site_id,
+           p_fulfillment_type,
+           (SELECT to_jsonb(f)
+            FROM fulfillment_option f
+            WHERE f.site_id = p_site_id
+              AND f.fulfillment_type = p_fulfillment_type
+            LIMIT 1),
+           (SELECT to_jsonb(m)
+            FROM shipping_methods m
+            WHERE m.site_id = p_site_id
+              AND m.fulfillment_type = p_fulfillment_type
+            LIMIT 1),
+           now()
+    ON CONFLICT (site_id, fulfillment_type) DO UPDATE
+        SET fulfillment_option = EXCLUDED.fulfillment_option,
+            shipping_methods   = EXCLUDED.shipping_methods,
+            refreshed_at       = EXCLUDED.refreshed_at;
+
+    DELETE
+    FROM site_shipping_catalog
+    WHERE site_id = p_site_id
+      AND fulfillment_type = p_fulfillment_type
+      AND fulfillment_option IS NULL
+      AND shipping_methods IS NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION site_shipping_catalog_trigger()
+    RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_site_shipping_catalog(OLD.site_id, OLD.fulfillment_type);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_site_shipping_catalog(NEW.site_id, NEW.fulfillment_type);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION site_shipping_catalog_site_deleted()
+    RETURNS trigger AS
+$$
+BEGIN
+    DELETE FROM site_shipping_catalog WHERE site_id = OLD.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER fulfillment_option_site_shipping_catalog
+    AFTER INSERT OR UPDATE OR DELETE
+    ON fulfillment_option
+    FOR EACH ROW
+EXECUTE PROCEDURE site_shipping_catalog_trigger();
+
+CREATE TRIGGER shipping_methods_site_shipping_catalog
+    AFTER INSERT OR UPDATE OR DELETE
+    ON shipping_methods
+    FOR EACH ROW
+EXECUTE PROCEDURE site_shipping_catalog_trigger();
+
+CREATE TRIGGER site_id_site_shipping_catalog
+    AFTER DELETE
+    ON site_id
+    FOR EACH ROW
+EXECUTE PROCEDURE site_shipping_catalog_site_deleted();
+
+-- Backfill from the current data.
+SELECT refresh_site_shipping_catalog(source.site_id, source.fulfillment_type)
+FROM (SELECT site_id, fulfillment_type
+      FROM fulfillment_option
+      UNION
+      SELECT site_id, fulfillment_type
+      FROM shipping_methods) source;